@@ -0,0 +1,48 @@
+package Benchmarks;
+
+import Simulation.CitizenStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+基准测试公用数据(Shared benchmark fixtures)
+
+资源路径相对于项目根目录，从 benchmarks 目录运行时自动退回上一级。
+ */
+final class BenchmarkData {
+    // ==================== 常量定义 ====================
+    static final String NAME_REPOSITORY_PATH = "src/main/resources/PersonalityResources/NameRepository.json";
+    static final long SEED = 20260222L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 在项目根目录或上一级目录中查找资源文件
+     */
+    static String resource(String relativePath) {
+        Path path = Paths.get(relativePath);
+        if (!Files.exists(path)) {
+            Path parent = Paths.get("..", relativePath);
+            if (Files.exists(parent)) {
+                return parent.toString();
+            }
+        }
+        return relativePath;
+    }
+
+    /**
+     * 市民更新示例：所有人格分数每Tick向50缓慢回归，读当前缓冲、写写入缓冲
+     */
+    static void relax(CitizenStore store, int from, int to, long tick) {
+        for (CitizenStore.Trait trait : CitizenStore.Trait.values()) {
+            float[] current = store.column(trait);
+            float[] next = store.nextColumn(trait);
+            for (int i = from; i < to; i++) {
+                next[i] = current[i] + (50f - current[i]) * 0.001f;
+            }
+        }
+    }
+}
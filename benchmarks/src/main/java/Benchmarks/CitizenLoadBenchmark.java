@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import Simulation.CitizenGenerator;
+import Simulation.CitizenStore;
+import Simulation.NameSampler;
+import Simulation.WorldSnapshot;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+市民载入(JSON vs binary citizen loading)
+
+同一批生成的市民分别写成 CitizenData.json 和二进制存档，比较载入到 CitizenStore 的耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitizenLoadBenchmark {
+    @Param({"10000", "100000"})
+    public int population;
+
+    private Path directory;
+    private Path jsonPath;
+    private Path binaryPath;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        directory = Files.createTempDirectory("citizen-load-benchmark");
+        jsonPath = directory.resolve("CitizenData.json");
+        binaryPath = directory.resolve("WorldSnapshot.bin");
+
+        NameSampler names = NameSampler.load(BenchmarkData.resource(BenchmarkData.NAME_REPOSITORY_PATH));
+        CitizenGenerator generator = new CitizenGenerator(names, BenchmarkData.SEED, Runtime.getRuntime().availableProcessors());
+        generator.writeJson(jsonPath, population);
+        generator.shutdown();
+
+        CitizenStore store = new CitizenStore();
+        store.loadFromJson(jsonPath);
+        WorldSnapshot.write(binaryPath, new WorldSnapshot(0, 0, 0, 100, BenchmarkData.SEED), store);
+    }
+
+    @Benchmark
+    public CitizenStore loadJson() throws IOException {
+        CitizenStore store = new CitizenStore();
+        store.loadFromJson(jsonPath);
+        return store;
+    }
+
+    @Benchmark
+    public CitizenStore loadBinary() throws IOException {
+        CitizenStore store = new CitizenStore();
+        WorldSnapshot.read(binaryPath, store);
+        return store;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jsonPath);
+        Files.deleteIfExists(binaryPath);
+        Files.deleteIfExists(directory);
+    }
+}
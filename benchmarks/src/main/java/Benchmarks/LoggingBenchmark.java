@@ -0,0 +1,84 @@
+package Benchmarks;
+
+import Simulation.CreateLogFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+日志吞吐量与延迟(CreateLogFile producers)
+
+1/4/16 个生产者线程调用 CreateLogFile.log(格式化在写入线程完成)：
+Throughput 为所有线程合计的每微秒调用数，SampleTime 为单次调用延迟分布(含队列满时的等待)。
+BLOCK 包含写入线程跟不上时的反压，DROP 只测调用方的开销。
+disabled 测量被级别过滤的 DEBUG 调用。日志写入 logs/ 目录。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(LoggingBenchmark.class);
+
+    @Param({"BLOCK", "DROP"})
+    public CreateLogFile.OverflowPolicy overflow;
+
+    @State(Scope.Thread)
+    public static class Producer {
+        long tick;
+    }
+
+    @Setup
+    public void setUp() {
+        CreateLogFile logger = CreateLogFile.getInstance();
+        logger.setOverflowPolicy(overflow);
+        logger.setLogLevel(CreateLogFile.LogLevel.INFO);
+    }
+
+    /**
+     * 每轮结束后写出积压，避免影响下一轮
+     */
+    @TearDown(Level.Iteration)
+    public void flush() {
+        CreateLogFile.getInstance().flush();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void log1(Producer producer) {
+        LOG.log("[Benchmark]Tick %d citizen %d decided %s", producer.tick++, 42, "work");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void log4(Producer producer) {
+        LOG.log("[Benchmark]Tick %d citizen %d decided %s", producer.tick++, 42, "work");
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void log16(Producer producer) {
+        LOG.log("[Benchmark]Tick %d citizen %d decided %s", producer.tick++, 42, "work");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void disabled(Producer producer) {
+        LOG.log(CreateLogFile.LogLevel.DEBUG, "[Benchmark]Tick %d citizen %d decided %s", producer.tick++, 42, "work");
+    }
+}
@@ -0,0 +1,71 @@
+package Benchmarks;
+
+import Simulation.CitizenGenerator;
+import Simulation.NameSampler;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+姓名抽样(Name sampling)
+
+sampleIndex  别名表单次抽样(O(1))
+nameOf       CitizenGenerator 按 (种子, ID) 生成完整姓名(随机数流 + 抽样 + 拼接)
+loadRepository  读取并编译 NameRepository.json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameSamplingBenchmark {
+    private String repositoryPath;
+    private NameSampler.Table table;
+    private CitizenGenerator generator;
+    private SplittableRandom random;
+    private long id;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        repositoryPath = BenchmarkData.resource(BenchmarkData.NAME_REPOSITORY_PATH);
+        NameSampler names = NameSampler.load(repositoryPath);
+        table = names.table("EastAsia", "China", "firstNames");
+        generator = new CitizenGenerator(names, BenchmarkData.SEED, 1);
+        random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public int sampleIndex() {
+        return table.sampleIndex(random.nextDouble());
+    }
+
+    @Benchmark
+    public String nameOf() {
+        return generator.nameOf(id++);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public NameSampler loadRepository() throws IOException, JSONException {
+        return NameSampler.load(repositoryPath);
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.shutdown();
+    }
+}
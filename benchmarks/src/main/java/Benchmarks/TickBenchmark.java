@@ -0,0 +1,75 @@
+package Benchmarks;
+
+import Simulation.CitizenStore;
+import Simulation.World;
+import Simulation.WorldConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+Tick吞吐量(Tick throughput by population)
+
+一个 World 的完整Tick：TickEngine 的命令队列、定时事件(events)和并行市民更新(citizens)。
+季节切换、自动存档和状态输出都是 EventScheduler 上的定时事件，测量期间不会到期，events 只比较一次 nextDue；
+市民更新使用 BenchmarkData.relax 对全部人格列做一次回归。
+threads = 0 表示CPU核数；timing = false 时关闭每个子系统的计时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"0", "10000", "100000", "1000000"})
+    public int population;
+
+    @Param({"0"})
+    public int threads;
+
+    @Param({"true", "false"})
+    public boolean timing;
+
+    private ForkJoinPool pool;
+    private World world;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        world = new World(WorldConfig.named("tick-benchmark"), pool);
+        CitizenStore store = world.getCitizenStore();
+        int first = store.allocate(population);
+        for (int id = first; id < first + population; id++) {
+            store.put(id, "Citizen" + id, CitizenStore.GENDER_UNKNOWN);
+            for (CitizenStore.Trait trait : CitizenStore.Trait.values()) {
+                store.set(trait, id, (id * 31 + trait.ordinal() * 7) % 100);
+            }
+        }
+        world.setCitizenUpdater(BenchmarkData::relax);
+        world.getEngine().setTimingEnabled(timing);
+    }
+
+    @Benchmark
+    public void executeTick() {
+        world.getEngine().executeTick();
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.shutdown();
+        pool.shutdown();
+    }
+}
@@ -8,6 +8,7 @@ import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 public class GuiWindow extends Application {
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(GuiWindow.class);
 
     @Override
     public void start(Stage primaryStage){
@@ -26,7 +27,7 @@ public class GuiWindow extends Application {
     }
     public static void main(String[] args) {
         launch(args);
-        CreateLogFile.getInstance().log("[GUI]:Create window 'EasyGui' Successfully");
+        LOG.log("[GUI]:Create window 'EasyGui' Successfully");
         CreateLogFile.getInstance().flush();
     }
 }
@@ -0,0 +1,83 @@
+package Simulation;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+
+/*
+城市吸引力子系统(City attractiveness system)
+
+季节切换事件发生时把城市吸引力设为该季节的基础值(由 World.onSeasonChanged 调用)，
+其余Tick不执行任何逻辑。各季节的基础值在运行前由 World.loadEnvironment 从 Profiles/WorldEnviroment.json 读取：
+  "CityAttractiveness"       所有季节的基础值
+  "SeasonalAttractiveness"   可选，按季节名称覆盖，例如 {"Summer": 120, "Winter": 80}
+ */
+public class AttractivenessSystem {
+    // ==================== 常量定义 ====================
+    public static final int DEFAULT_ATTRACTIVENESS = 100;
+
+    // ==================== 成员变量 ====================
+    private final SeasonSystem seasons;
+    private final int[] seasonalBase = new int[SeasonSystem.SEASONS.length];
+    private volatile int cityAttractiveness = DEFAULT_ATTRACTIVENESS;
+
+    public AttractivenessSystem(SeasonSystem seasons) {
+        this.seasons = seasons;
+        Arrays.fill(seasonalBase, DEFAULT_ATTRACTIVENESS);
+    }
+
+    /**
+     * 季节切换时应用该季节的基础城市吸引力
+     */
+    void onSeasonChanged(int season) {
+        cityAttractiveness = seasonalBase[season];
+    }
+
+    /**
+     * 设置某个季节的基础城市吸引力
+     */
+    public void setSeasonalBase(int season, int attractiveness) {
+        seasonalBase[season] = attractiveness;
+    }
+
+    /**
+     * 从环境配置读取各季节的基础城市吸引力，并把当前吸引力设为当前季节的基础值
+     */
+    public void loadSeasonalBases(JSONObject environment) throws JSONException {
+        if (environment.has("CityAttractiveness")) {
+            Arrays.fill(seasonalBase, (int) Math.round(environment.getDouble("CityAttractiveness")));
+        }
+        JSONObject seasonal = environment.optJSONObject("SeasonalAttractiveness");
+        if (seasonal != null) {
+            for (int season = 0; season < SeasonSystem.SEASONS.length; season++) {
+                if (seasonal.has(SeasonSystem.SEASONS[season])) {
+                    seasonalBase[season] = (int) Math.round(seasonal.getDouble(SeasonSystem.SEASONS[season]));
+                }
+            }
+        }
+        reset();
+    }
+
+    /**
+     * 获取某个季节的基础城市吸引力
+     */
+    public int getSeasonalBase(int season) {
+        return seasonalBase[season];
+    }
+
+    /**
+     * 恢复城市吸引力(读取存档时)，保持到下一次季节变化
+     */
+    public void set(int cityAttractiveness) {
+        this.cityAttractiveness = cityAttractiveness;
+    }
+
+    public void reset() {
+        cityAttractiveness = seasonalBase[seasons.getCurrentSeason()];
+    }
+
+    public int getCityAttractiveness() {
+        return cityAttractiveness;
+    }
+}
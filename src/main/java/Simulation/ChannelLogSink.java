@@ -0,0 +1,132 @@
+package Simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+基于 FileChannel 的日志输出端(NIO channel sink)
+
+字符分段复制到复用的 char[]，编码到复用的堆缓冲(编码器只对数组缓冲走快速路径)，
+再批量复制进预分配的直接缓冲池，整个过程不产生 String 或 byte[] 垃圾；
+缓冲池写满或刷新时，用一次聚集写入(gathering write)把所有缓冲交给内核，
+直接缓冲也省去了 JDK 对堆缓冲的临时复制。
+ */
+final class ChannelLogSink implements LogSink {
+    // ==================== 常量定义 ====================
+    private static final int BUFFER_SIZE = 65536;
+    private static final int POOL_SIZE = 8;
+    private static final int CHUNK_CHARS = 16384;
+
+    // ==================== 成员变量 ====================
+    private final FileChannel channel;
+    private final ByteBuffer[] pool = new ByteBuffer[POOL_SIZE];
+    private int active = 0;   // pool[0..active) 已写满待写出，pool[active] 正在填充
+    private long size;        // 文件字节数，包括缓冲池中未写出的部分
+    private final char[] chars = new char[CHUNK_CHARS];
+    private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_CHARS * 3);  // UTF-8 每个 char 最多3字节
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    ChannelLogSink(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        this.size = channel.size();
+    }
+
+    @Override
+    public void write(StringBuilder logs) throws IOException {
+        int length = logs.length();
+        for (int offset = 0; offset < length; ) {
+            int end = Math.min(length, offset + CHUNK_CHARS);
+            // 代理对不能被分到两段中
+            if (end < length && Character.isHighSurrogate(logs.charAt(end - 1))) {
+                end--;
+            }
+            logs.getChars(offset, end, chars, 0);
+            charBuffer.clear();
+            charBuffer.limit(end - offset);
+            encode();
+            offset = end;
+        }
+    }
+
+    // 先用编码器的数组快速路径编码到堆缓冲，再批量复制进直接缓冲
+    private void encode() throws IOException {
+        encoder.reset();
+        bytes.clear();
+        CoderResult result = encoder.encode(charBuffer, bytes, true);
+        if (result.isError()) {
+            result.throwException();
+        }
+        bytes.flip();
+        size += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            ByteBuffer target = pool[active];
+            if (!target.hasRemaining()) {
+                nextBuffer();
+                continue;
+            }
+            int length = Math.min(bytes.remaining(), target.remaining());
+            target.put(target.position(), bytes, bytes.position(), length);
+            target.position(target.position() + length);
+            bytes.position(bytes.position() + length);
+        }
+    }
+
+    // 当前缓冲已满，换下一个；缓冲池用完时整体写出
+    private void nextBuffer() throws IOException {
+        if (active == POOL_SIZE - 1) {
+            writePool();
+        } else {
+            active++;
+        }
+    }
+
+    private void writePool() throws IOException {
+        for (int i = 0; i <= active; i++) {
+            pool[i].flip();
+        }
+        ByteBuffer last = pool[active];
+        while (last.hasRemaining()) {
+            channel.write(pool, 0, active + 1);
+        }
+        for (int i = 0; i <= active; i++) {
+            pool[i].clear();
+        }
+        active = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (active > 0 || pool[0].position() > 0) {
+            writePool();
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -1,46 +1,392 @@
 package Simulation;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 
+/*
+批量市民生成器(Bulk citizen generation pipeline)
+
+给定数量N和种子，并行生成姓名、性别、人格分数、家庭关系和就业信息：
+1. 每个市民的所有属性都只由 (种子, 市民ID) 决定，与线程数无关；
+2. 按批次(BATCH_SIZE)并行渲染，上一批写盘时下一批已在生成，同时最多两批在内存中；
+3. 结果以 CitizenData.json 相同的结构流式写入磁盘，不再构建一个巨大的 JSONObject。
+
+用法: CitizenGenerator <数量> [种子] [输出文件] [线程数]
+ */
 public class CitizenGenerator { //CitizenGenerator
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(CitizenGenerator.class);
+    public static final String NAME_REPOSITORY_PATH = "src/main/resources/PersonalityResources/NameRepository.json";
+    private static final String DEFAULT_OUTPUT_PATH = "Profiles/CitizenData.json";
+    private static final String USAGE = "用法: CitizenGenerator <数量> [种子] [输出文件] [线程数]";
+    private static final long DEFAULT_SEED = 20260222L;
+    private static final int BATCH_SIZE = 65536;
+    private static final int CHUNK_SIZE = 4096;
+
+    private static final String[] SYMBOLS = {"tiger", "peacock", "koala", "owl", "chameleon"};
+    private static final String[] COMMUNICATION_STYLES = {"直接型(Directly)", "表达型(Expressive)", "温和型(Gentle)", "严谨型(Rigorous)", "灵活型(Flexible)"};
+    private static final String[] POSITIONS = {"Staff", "Engineer", "Clerk", "Worker", "Teacher", "Doctor", "Manager", "Director", "CEO"};
+    private static final double EMPLOYMENT_RATE = 0.85;
+    private static final int ENTERPRISE_COUNT = 500;
+    private static final int PARENT_ATTEMPTS = 8;
+
+    private static final CitizenStore.Trait[] TRAITS = CitizenStore.Trait.values();
+    private static final int NATURAL = CitizenStore.Trait.NATURAL_DOMINANCE.ordinal();
+    private static final int ADAPTED = CitizenStore.Trait.ADAPTED_DOMINANCE.ordinal();
+    private static final int PERCEIVED = CitizenStore.Trait.PERCEIVED_DOMINANCE.ordinal();
+    private static final int DIMENSIONS = 5; // dominance, extraversion, patience, conformity, decisionMaking
+
+    // ==================== 成员变量 ====================
+    private final RandomStreams random;
+    private final NameSampler.Table surnames;
+    private final ForkJoinPool pool;
+
+    public CitizenGenerator(NameSampler names, long seed, int threads) {
+        this.random = new RandomStreams(seed);
+        this.surnames = names.table("EastAsia", "China", "firstNames");
+        if (surnames == null) {
+            throw new IllegalArgumentException("NameRepository has no EastAsia/China/firstNames table");
+        }
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
     public static void main(String[] args) {
+        int count;
+        long seed;
+        int threads;
         try {
-            //read citizen name repository prepare for random generate citizen name
+            if (args.length > 4) {
+                throw new IllegalArgumentException("参数过多");
+            }
+            count = args.length > 0 ? (int) parseArg(args[0], "数量", 0, Integer.MAX_VALUE) : 1000;
+            seed = args.length > 1 ? parseArg(args[1], "种子", Long.MIN_VALUE, Long.MAX_VALUE) : DEFAULT_SEED;
+            threads = args.length > 3 ? (int) parseArg(args[3], "线程数", 1, Integer.MAX_VALUE) : Runtime.getRuntime().availableProcessors();
+        } catch (IllegalArgumentException e) {
+            System.err.println("[错误] " + e.getMessage());
+            System.err.println(USAGE);
+            CreateLogFile.getInstance().shutdown();
+            System.exit(2);
+            return;
+        }
+        String output = args.length > 2 ? args[2] : DEFAULT_OUTPUT_PATH;
 
-            //Read NameRepository.json file to String
-            String content = new String(Files.readAllBytes(Paths.get("src/main/resources/PersonalityResources/NameRepository.json")));
+        try {
+            //read citizen name repository prepare for random generate citizen name
+            NameSampler names = NameSampler.load(NAME_REPOSITORY_PATH);
             //Create a log massage
-            CreateLogFile.getInstance().log("Successfully loaded NameRepository.json");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
+            LOG.log("Successfully loaded NameRepository.json");
             CreateLogFile.getInstance().flush();
-            //read name repository to a 
-            JSONObject NameRepository = new JSONObject(content);
-            //pick a first name randomly
 
-        } catch (IOException e){
+            CitizenGenerator generator = new CitizenGenerator(names, seed, threads);
+            long start = System.nanoTime();
+            generator.writeJson(Paths.get(output), count);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            generator.shutdown();
+
+            System.out.println("生成市民 " + count + " 人，耗时 " + elapsedMs + " ms -> " + output);
+            LOG.log("Generated %d citizens (seed %d) in %d ms to %s", count, seed, elapsedMs, output);
+            CreateLogFile.getInstance().flush();
+        } catch (IOException e) {
+            System.err.println("FileError(1):" + e.getMessage());
+            e.printStackTrace();
+        } catch (JSONException e) {
+            System.err.println("FileError(2):" + e.getMessage());
             e.printStackTrace();
         }
+    }
 
+    /**
+     * 解析整数参数，格式错误或超出 [min, max] 时抛出 IllegalArgumentException
+     */
+    private static long parseArg(String value, String name, long min, long max) {
+        long parsed;
+        try {
+            parsed = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + "必须是整数: " + value);
+        }
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException(name + "超出范围: " + value);
+        }
+        return parsed;
+    }
 
+    // ==================== 批量输出 ====================
 
+    /**
+     * 生成 count 个市民并以 CitizenData.json 的结构流式写入文件
+     */
+    public void writeJson(Path output, int count) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            out.write("{\"Citizens\":{\n");
+            // 写当前批次的同时生成下一批次
+            Future<String[]> pending = count > 0 ? pool.submit(() -> renderBatch(0, Math.min(count, BATCH_SIZE))) : null;
+            for (int batchStart = 0; pending != null; batchStart += BATCH_SIZE) {
+                int nextStart = batchStart + BATCH_SIZE;
+                Future<String[]> next = nextStart < count
+                    ? pool.submit(() -> renderBatch(nextStart, Math.min(count, nextStart + BATCH_SIZE)))
+                    : null;
+                for (String chunk : await(pending)) {
+                    out.write(chunk);
+                }
+                pending = next;
+            }
+            out.write("\n}}\n");
+        }
+    }
 
+    // 批次内按 CHUNK_SIZE 并行渲染，返回按ID顺序排列的文本块
+    private String[] renderBatch(int from, int to) {
+        int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        String[] parts = new String[chunks];
+        RecursiveAction[] tasks = new RecursiveAction[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int index = c;
+            int chunkFrom = from + c * CHUNK_SIZE;
+            int chunkTo = Math.min(to, chunkFrom + CHUNK_SIZE);
+            tasks[c] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    parts[index] = renderChunk(chunkFrom, chunkTo);
+                }
+            };
+        }
+        RecursiveAction.invokeAll(tasks);
+        return parts;
+    }
+
+    private String renderChunk(int from, int to) {
+        StringBuilder sb = new StringBuilder((to - from) * 640);
+        float[] scores = new float[TRAITS.length];
+        for (int id = from; id < to; id++) {
+            if (id > 0) {
+                sb.append(",\n");
+            }
+            appendCitizen(sb, id, scores);
+        }
+        return sb.toString();
+    }
+
+    private static String[] await(Future<String[]> future) throws IOException {
         try {
-            //read and write generated citizen data
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Citizen generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Citizen generation failed", e.getCause());
+        }
+    }
 
-            //read CitizenData.json file to String
-            String content = new String(Files.readAllBytes(Paths.get("src/main/resources/PersonalityResources/CitizenData")));
-            CreateLogFile.getInstance().log("Successfully loaded CitizenData.json");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
-            CreateLogFile.getInstance().flush();
-            //Create JSONObject from String
-            JSONObject obj = new JSONObject(content);
+    // ==================== 内存生成 ====================
 
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * 直接生成 count 个市民到列式存储(追加在已有市民之后)
+     */
+    public void populate(CitizenStore store, int count) {
+        int first = store.allocate(count);
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        RecursiveAction[] tasks = new RecursiveAction[chunks];
+        for (int c = 0; c < chunks; c++) {
+            int chunkFrom = c * CHUNK_SIZE;
+            int chunkTo = Math.min(count, chunkFrom + CHUNK_SIZE);
+            tasks[c] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    float[] scores = new float[TRAITS.length];
+                    for (int i = chunkFrom; i < chunkTo; i++) {
+                        int id = first + i;
+                        generateScores(id, scores);
+                        store.initialize(id, nameOf(id), genderOf(id), scores);
+                    }
+                }
+            };
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * 关闭生成线程池
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // ==================== 单个市民的属性(只由种子和ID决定) ====================
+
+    public byte genderOf(long id) {
+        return random.nextDouble(RandomStreams.Subsystem.GENDER, id, 0, 0) < 0.5
+            ? CitizenStore.GENDER_MALE : CitizenStore.GENDER_FEMALE;
+    }
+
+    /**
+     * 姓氏按权重抽取，后缀为ID的36进制，保证姓名(也是 Citizens 中的键)唯一
+     */
+    public String nameOf(long id) {
+        String surname = surnames.sample(random.nextDouble(RandomStreams.Subsystem.NAME, id, 0, 0));
+        return surname + "·" + Long.toString(id, 36).toUpperCase();
+    }
+
+    /**
+     * 父亲/母亲是ID更小的市民中随机抽取的一位(尽量匹配性别)，ID为0的市民没有父母
+     */
+    public long parentOf(long id, byte gender) {
+        if (id <= 0) {
+            return -1;
+        }
+        long candidate = 0;
+        for (int attempt = 0; attempt < PARENT_ATTEMPTS; attempt++) {
+            double u = random.nextDouble(RandomStreams.Subsystem.FAMILY, id, gender, attempt);
+            candidate = (long) (u * id);
+            if (genderOf(candidate) == gender) {
+                break;
+            }
         }
+        return candidate;
+    }
+
+    /**
+     * 生成全部人格分数到 scores(按 CitizenStore.Trait 顺序)
+     * adaptedSelf 围绕 naturalSelf 波动，两者差距越大 energyDrain 越高
+     */
+    public void generateScores(long id, float[] scores) {
+        SplittableRandom rnd = random.stream(RandomStreams.Subsystem.PERSONALITY, id);
+        double gap = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double natural = clampScore(5.5 + rnd.nextGaussian() * 1.8);
+            double adapted = clampScore(natural + rnd.nextGaussian() * 0.9);
+            double perceived = clampScore((natural + adapted) / 2 + rnd.nextGaussian() * 0.5);
+            scores[NATURAL + d] = (float) natural;
+            scores[ADAPTED + d] = (float) adapted;
+            scores[PERCEIVED + d] = (float) perceived;
+            gap += Math.abs(natural - adapted);
+        }
+        gap /= DIMENSIONS;
+
+        double energyDrain = clampScore(gap * 3 + rnd.nextGaussian() * 0.8);
+        scores[CitizenStore.Trait.SATISFACTION_INDEX.ordinal()] = (float) clampScore(6 - gap + rnd.nextGaussian() * 1.5);
+        scores[CitizenStore.Trait.ENERGY_DRAIN.ordinal()] = (float) energyDrain;
+        scores[CitizenStore.Trait.JOB_PRESSURE.ordinal()] = (float) clampScore(5 + rnd.nextGaussian() * 2);
+        scores[CitizenStore.Trait.CONSISTENCY.ordinal()] = (float) clampScore(10 - energyDrain);
+
+        scores[CitizenStore.Trait.LOGICAL_THINKING.ordinal()] = (float) clampScore(scores[NATURAL + 4] + rnd.nextGaussian());
+        scores[CitizenStore.Trait.RISK_TAKING.ordinal()] = (float) clampScore(scores[NATURAL] + rnd.nextGaussian());
+        scores[CitizenStore.Trait.DETAIL_ORIENTATION.ordinal()] = (float) clampScore(scores[NATURAL + 3] + rnd.nextGaussian());
+        scores[CitizenStore.Trait.TEAM_COOPERATION.ordinal()] = (float) clampScore(scores[NATURAL + 2] + rnd.nextGaussian());
+    }
+
+    // 0-10之间，保留一位小数
+    private static double clampScore(double value) {
+        return Math.round(Math.max(0, Math.min(10, value)) * 10) / 10.0;
+    }
+
+    // PDP性格：支配-老虎，表达-孔雀，耐心-考拉，精确-猫头鹰，各项接近时为变色龙
+    private static int symbolOf(float[] scores, int base) {
+        int best = 0;
+        float max = scores[base];
+        float min = scores[base];
+        for (int d = 1; d < 4; d++) {
+            float value = scores[base + d];
+            if (value > max) {
+                max = value;
+                best = d;
+            }
+            min = Math.min(min, value);
+        }
+        return max - min < 1.5f ? 4 : best;
+    }
+
+    // ==================== JSON渲染 ====================
+    private void appendCitizen(StringBuilder sb, long id, float[] scores) {
+        generateScores(id, scores);
+        String name = nameOf(id);
+        byte gender = genderOf(id);
+
+        sb.append(JSONObject.quote(name)).append(":{\"ID\":").append(id)
+          .append(",\"Name\":").append(JSONObject.quote(name))
+          .append(",\"Gender\":\"").append(gender == CitizenStore.GENDER_MALE ? "male" : "female").append('"');
+
+        // Personality
+        sb.append(",\"Personality\":{\"coreSymbol\":{")
+          .append("\"naturalSelf\":\"").append(SYMBOLS[symbolOf(scores, NATURAL)]).append('"')
+          .append(",\"adaptedSelf\":\"").append(SYMBOLS[symbolOf(scores, ADAPTED)]).append('"')
+          .append(",\"perceivedByOthers\":\"").append(SYMBOLS[symbolOf(scores, PERCEIVED)]).append("\"}")
+          .append(",\"scores\":{");
+        String group = null;
+        for (CitizenStore.Trait trait : TRAITS) {
+            if (!trait.getGroup().equals(group)) {
+                if (group != null) {
+                    sb.append("},");
+                }
+                group = trait.getGroup();
+                sb.append('"').append(group).append("\":{");
+            } else {
+                sb.append(',');
+            }
+            sb.append('"').append(trait.getKey()).append("\":");
+            appendScore(sb, scores[trait.ordinal()]);
+        }
+        sb.append(",\"communicationStyle\":\"").append(COMMUNICATION_STYLES[symbolOf(scores, NATURAL)]).append("\"}}}");
+
+        // Family：父母和祖父母都是已生成的市民
+        long father = parentOf(id, CitizenStore.GENDER_MALE);
+        long mother = parentOf(id, CitizenStore.GENDER_FEMALE);
+        sb.append(",\"Family\":{\"Patrilineal父系\":{\"Father\":");
+        appendRelative(sb, father);
+        sb.append(",\"GrandFather\":");
+        appendRelative(sb, father < 0 ? -1 : parentOf(father, CitizenStore.GENDER_MALE));
+        sb.append("},\"Matriarchal母系\":{\"Mother\":");
+        appendRelative(sb, mother);
+        sb.append(",\"GrandMother\":");
+        appendRelative(sb, mother < 0 ? -1 : parentOf(mother, CitizenStore.GENDER_FEMALE));
+        sb.append("}}");
+
+        // Company
+        boolean employed = random.nextDouble(RandomStreams.Subsystem.EMPLOYMENT, id, 0, 0) < EMPLOYMENT_RATE;
+        sb.append(",\"Company\":{\"Employment\":\"").append(employed ? "True" : "False").append('"');
+        if (employed) {
+            int enterprise = (int) (random.nextDouble(RandomStreams.Subsystem.EMPLOYMENT, id, 0, 1) * ENTERPRISE_COUNT);
+            // 职位越高越稀少
+            double u = random.nextDouble(RandomStreams.Subsystem.EMPLOYMENT, id, 0, 2);
+            int position = (int) (u * u * u * POSITIONS.length);
+            sb.append(",\"Enterprice\":\"Enterprise-").append(enterprise).append(" Limited Company\"")
+              .append(",\"Position\":\"").append(POSITIONS[position]).append('"');
+        }
+        sb.append("},\"Address\":\"EastAsia,China\"}");
+    }
+
+    private void appendRelative(StringBuilder sb, long relative) {
+        if (relative < 0) {
+            sb.append("\"\"");
+        } else {
+            sb.append(JSONObject.quote(nameOf(relative)));
+        }
+    }
+
+    // 分数已保留一位小数，直接按十分位输出，避免 Double.toString
+    private static void appendScore(StringBuilder sb, float score) {
+        int tenths = Math.round(score * 10);
+        sb.append(tenths / 10).append('.').append(tenths % 10);
     }
 }
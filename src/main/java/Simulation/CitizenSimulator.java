@@ -1,18 +1,18 @@
 package Simulation;
 
-import org.json.JSONObject;
-
-import java.nio.file.Files;
 import java.nio.file.Paths;
 
 public class CitizenSimulator {
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(CitizenSimulator.class);
+
     private static void main(String args[]) {
         try {
-            String content = new String(Files.readAllBytes(Paths.get("src/main/resources/PersonalityResources/CitizenData.json")));
-            CreateLogFile.getInstance().log("Successfully loaded CitizenData.json");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
+            //Stream CitizenData.json citizen by citizen into the column store, the simulation works on it
+            CitizenStore store = new CitizenStore();
+            int count = store.loadFromJson(Paths.get("src/main/resources/PersonalityResources/CitizenData.json"));
+            LOG.log("Successfully loaded CitizenData.json");
+            LOG.log("Loaded %d citizens into CitizenStore", count);
             CreateLogFile.getInstance().flush();
-            JSONObject CitizenData = new JSONObject(content);
 
         } catch (Exception e) {
             e.printStackTrace();
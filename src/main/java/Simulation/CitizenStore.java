@@ -0,0 +1,597 @@
+package Simulation;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/*
+列式市民存储(Structure-of-arrays citizen store)
+
+每个数值型人格分数一列 float[]，按市民ID索引：
+columns[trait.ordinal()][citizenId]
+模拟逻辑直接读写这些列，不再持有嵌套的 JSONObject，
+一百万市民的全部分数约 92MB，且可以按列顺序遍历。
+
+并行更新时使用双缓冲：读取当前缓冲(get/column)，写入下一缓冲(setNext/nextColumn)，
+整个更新阶段结束后 swapBuffers() 交换，保证结果与线程数无关。
+
+脏标记(dirty bitset)记录上次存档后发生变化的市民，增量存档只写这些市民。
+位图按64位一个字普通写入(不用原子操作)：并行更新时各块按64个ID对齐，每个字只属于一个块；
+只有块边界不对齐时，边界上的字才原子置位。
+ */
+public class CitizenStore {
+    // ==================== 分数列定义 ====================
+    public enum Trait {
+        // naturalSelf 自然状态
+        NATURAL_DOMINANCE("naturalSelf", "dominance"),
+        NATURAL_EXTRAVERSION("naturalSelf", "extraversion"),
+        NATURAL_PATIENCE("naturalSelf", "patience"),
+        NATURAL_CONFORMITY("naturalSelf", "conformity"),
+        NATURAL_DECISION_MAKING("naturalSelf", "decisionMaking"),
+        // adaptedSelf 适应状态
+        ADAPTED_DOMINANCE("adaptedSelf", "dominance"),
+        ADAPTED_EXTRAVERSION("adaptedSelf", "extraversion"),
+        ADAPTED_PATIENCE("adaptedSelf", "patience"),
+        ADAPTED_CONFORMITY("adaptedSelf", "conformity"),
+        ADAPTED_DECISION_MAKING("adaptedSelf", "decisionMaking"),
+        // perceivedByOthers 他人眼中
+        PERCEIVED_DOMINANCE("perceivedByOthers", "dominance"),
+        PERCEIVED_EXTRAVERSION("perceivedByOthers", "extraversion"),
+        PERCEIVED_PATIENCE("perceivedByOthers", "patience"),
+        PERCEIVED_CONFORMITY("perceivedByOthers", "conformity"),
+        PERCEIVED_DECISION_MAKING("perceivedByOthers", "decisionMaking"),
+        // energyIndicators 能量指标
+        SATISFACTION_INDEX("energyIndicators", "satisfactionIndex"),
+        ENERGY_DRAIN("energyIndicators", "energyDrain"),
+        JOB_PRESSURE("energyIndicators", "jobPressure"),
+        CONSISTENCY("energyIndicators", "consistency"),
+        // traitDetails 特质细节
+        LOGICAL_THINKING("traitDetails", "logicalThinking"),
+        RISK_TAKING("traitDetails", "riskTaking"),
+        DETAIL_ORIENTATION("traitDetails", "detailOrientation"),
+        TEAM_COOPERATION("traitDetails", "teamCooperation");
+
+        private final String group;
+        private final String key;
+        Trait(String group, String key) {
+            this.group = group;
+            this.key = key;
+        }
+        public String getGroup() { return group; }
+        public String getKey() { return key; }
+    }
+
+    // ==================== 性别编码 ====================
+    public static final byte GENDER_UNKNOWN = 0;
+    public static final byte GENDER_MALE = 1;
+    public static final byte GENDER_FEMALE = 2;
+
+    // ==================== 常量定义 ====================
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Trait[] TRAITS = Trait.values();
+    private static final VarHandle DIRTY_WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // ==================== 成员变量 ====================
+    private float[][] columns = new float[TRAITS.length][];
+    private float[][] nextColumns; // 双缓冲的写入侧，首次使用时分配
+    private String[] names;
+    private byte[] genders;
+    private long[] dirty;
+    private int size = 0;
+
+    // ==================== 构造方法 ====================
+    public CitizenStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CitizenStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new float[capacity];
+        }
+        names = new String[capacity];
+        genders = new byte[capacity];
+        dirty = new long[wordsFor(capacity)];
+    }
+
+    // ==================== 写入方法 ====================
+
+    /**
+     * 追加一个市民，返回分配到的ID
+     */
+    public int add(String name, byte gender) {
+        int id = size;
+        put(id, name, gender);
+        return id;
+    }
+
+    /**
+     * 一次预留 count 个连续ID(全部标记为脏)并返回第一个ID，之后可由多个线程各自 initialize 不相交的ID
+     */
+    public int allocate(int count) {
+        int first = size;
+        ensureCapacity(first + count);
+        size = first + count;
+        markDirty(first, first + count);
+        return first;
+    }
+
+    /**
+     * 清空全部市民(保留已分配的容量)
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * 按指定ID写入市民基础信息，ID超出当前容量时自动扩容(单线程调用)
+     */
+    public void put(int id, String name, byte gender) {
+        if (id < 0) {
+            throw new IllegalArgumentException("citizen id must not be negative, but was " + id);
+        }
+        ensureCapacity(id + 1);
+        names[id] = name;
+        genders[id] = gender;
+        if (id >= size) {
+            size = id + 1;
+        }
+        markDirty(id);
+    }
+
+    /**
+     * 写入 allocate 预留的市民(不扩容、不再标记脏)，多个线程可以同时写入不相交的ID
+     */
+    public void initialize(int id, String name, byte gender, float[] scores) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("citizen id " + id + " was not allocated (size " + size + ")");
+        }
+        names[id] = name;
+        genders[id] = gender;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][id] = scores[i];
+        }
+    }
+
+    /**
+     * 写入单个分数并标记为脏(单线程写入，或各线程写入的ID不共享同一个64位字)
+     */
+    public void set(Trait trait, int id, float value) {
+        columns[trait.ordinal()][id] = value;
+        markDirty(id);
+    }
+
+    public float get(Trait trait, int id) {
+        return columns[trait.ordinal()][id];
+    }
+
+    /**
+     * 获取整列数组，用于按列批量读写(扩容后需重新获取)
+     */
+    public float[] column(Trait trait) {
+        return columns[trait.ordinal()];
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public byte getGender(int id) {
+        return genders[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return names.length;
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = names.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, capacity + (capacity >> 1));
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], newCapacity);
+        }
+        if (nextColumns != null) {
+            for (int i = 0; i < nextColumns.length; i++) {
+                nextColumns[i] = Arrays.copyOf(nextColumns[i], newCapacity);
+            }
+        }
+        names = Arrays.copyOf(names, newCapacity);
+        genders = Arrays.copyOf(genders, newCapacity);
+        dirty = Arrays.copyOf(dirty, wordsFor(newCapacity));
+    }
+
+    // ==================== 脏标记 ====================
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * 标记单个市民为脏(普通写入，规则同 set)
+     */
+    public void markDirty(int id) {
+        dirty[id >>> 6] |= 1L << id;
+    }
+
+    /**
+     * 标记 [from, to) 区间全部为脏，整字直接填满(单线程调用)
+     */
+    public void markDirty(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            dirty[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        dirty[firstWord] |= firstMask;
+        Arrays.fill(dirty, firstWord + 1, lastWord, -1L);
+        dirty[lastWord] |= lastMask;
+    }
+
+    public boolean isDirty(int id) {
+        return (dirty[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * 返回 fromId 及之后的第一个脏市民ID，没有时返回 -1
+     */
+    public int nextDirty(int fromId) {
+        if (fromId >= size) {
+            return -1;
+        }
+        int word = fromId >>> 6;
+        long bits = dirty[word] & (-1L << fromId);
+        while (true) {
+            if (bits != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return id < size ? id : -1;
+            }
+            if (++word >= wordsFor(size)) {
+                return -1;
+            }
+            bits = dirty[word];
+        }
+    }
+
+    public int dirtyCount() {
+        int count = 0;
+        for (int i = 0, words = wordsFor(size); i < words; i++) {
+            count += Long.bitCount(dirty[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 存档完成后清除全部脏标记
+     */
+    public void clearDirty() {
+        Arrays.fill(dirty, 0L);
+    }
+
+    /**
+     * 比较写入缓冲与当前缓冲，把 [from, to) 中有分数变化的市民标记为脏(在 swapBuffers 之前调用)
+     */
+    public void markChanged(int from, int to) {
+        markChanged(from, to, TRAITS);
+    }
+
+    /**
+     * 只比较 traits 列(更新逻辑写入的列)。完整落在 [from, to) 内的字普通写入，
+     * 区间两端不完整的字可能与相邻的块共享，原子置位；按64对齐分块时只有末尾一个字需要原子操作
+     */
+    public void markChanged(int from, int to, Trait[] traits) {
+        for (int wordStart = from; wordStart < to; ) {
+            int word = wordStart >>> 6;
+            int wordEnd = Math.min(to, (word + 1) << 6);
+            long bits = 0;
+            for (Trait trait : traits) {
+                float[] current = columns[trait.ordinal()];
+                float[] next = nextColumns[trait.ordinal()];
+                for (int id = wordStart; id < wordEnd; id++) {
+                    if (Float.floatToRawIntBits(current[id]) != Float.floatToRawIntBits(next[id])) {
+                        bits |= 1L << id;
+                    }
+                }
+            }
+            if (bits != 0) {
+                if ((wordStart & 63) == 0 && (wordEnd & 63) == 0) {
+                    dirty[word] |= bits;
+                } else {
+                    DIRTY_WORDS.getAndBitwiseOr(dirty, word, bits);
+                }
+            }
+            wordStart = wordEnd;
+        }
+    }
+
+    // ==================== 双缓冲 ====================
+
+    /**
+     * 分配写入缓冲(幂等)，必须在并行更新开始前调用
+     */
+    public void enableDoubleBuffer() {
+        if (nextColumns != null) {
+            return;
+        }
+        float[][] next = new float[columns.length][];
+        for (int i = 0; i < next.length; i++) {
+            next[i] = new float[columns[i].length];
+        }
+        nextColumns = next;
+    }
+
+    /**
+     * 将 [from, to) 区间的当前值复制到写入缓冲，未被更新的分数保持不变
+     */
+    public void copyToNext(int from, int to) {
+        copyToNext(from, to, TRAITS);
+    }
+
+    /**
+     * 只复制 traits 列(与 swapBuffers(traits) 配合，其余列不经过写入缓冲)
+     */
+    public void copyToNext(int from, int to, Trait[] traits) {
+        for (Trait trait : traits) {
+            System.arraycopy(columns[trait.ordinal()], from, nextColumns[trait.ordinal()], from, to - from);
+        }
+    }
+
+    public void setNext(Trait trait, int id, float value) {
+        nextColumns[trait.ordinal()][id] = value;
+    }
+
+    /**
+     * 获取写入缓冲中的整列数组
+     */
+    public float[] nextColumn(Trait trait) {
+        return nextColumns[trait.ordinal()];
+    }
+
+    /**
+     * 交换读写缓冲，写入缓冲中的结果成为当前值
+     */
+    public void swapBuffers() {
+        float[][] current = columns;
+        columns = nextColumns;
+        nextColumns = current;
+    }
+
+    /**
+     * 只交换 traits 列，其余列的当前值不变(写入缓冲中这些列的内容不再有意义)
+     */
+    public void swapBuffers(Trait[] traits) {
+        for (Trait trait : traits) {
+            int i = trait.ordinal();
+            float[] current = columns[i];
+            columns[i] = nextColumns[i];
+            nextColumns[i] = current;
+        }
+    }
+
+    // ==================== JSON导入 ====================
+
+    /**
+     * 从 CitizenData.json 的根对象(包含 "Citizens")导入全部市民，返回导入数量
+     */
+    public int loadFromJson(JSONObject citizenData) throws JSONException {
+        JSONObject citizens = citizenData.getJSONObject("Citizens");
+        int count = 0;
+        Iterator<?> keys = citizens.keys();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            addFromJson(key, citizens.getJSONObject(key));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 导入单个市民，有 "ID" 字段时按ID写入，否则追加
+     */
+    public int addFromJson(String key, JSONObject citizen) throws JSONException {
+        int id = citizen.has("ID") ? citizen.getInt("ID") : size;
+        put(id, citizen.optString("Name", key), parseGender(citizen.optString("Gender", "")));
+
+        JSONObject personality = citizen.optJSONObject("Personality");
+        JSONObject scores = personality == null ? null : personality.optJSONObject("scores");
+        if (scores == null) {
+            return id;
+        }
+        for (Trait trait : TRAITS) {
+            JSONObject group = scores.optJSONObject(trait.getGroup());
+            if (group != null) {
+                columns[trait.ordinal()][id] = (float) findScore(group, trait.getKey());
+            }
+        }
+        return id;
+    }
+
+    // ==================== 流式导入 ====================
+
+    /**
+     * 流式读取 CitizenData.json，逐个市民直接写入列，不构建 JSONObject，返回导入数量。
+     * 内存占用只有列本身，可以读取超过2GB的文件
+     */
+    public int loadFromJson(Path path) throws IOException {
+        try (JsonPullReader reader = new JsonPullReader(
+                new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
+            if (reader.next() != JsonPullReader.Token.BEGIN_OBJECT) {
+                throw new IOException("CitizenData root must be an object: " + path);
+            }
+            int count = 0;
+            float[] scores = new float[TRAITS.length];
+            JsonPullReader.Token token;
+            while ((token = reader.next()) == JsonPullReader.Token.NAME) {
+                if (!"Citizens".contentEquals(reader.textValue())) {
+                    reader.skipValue();
+                    continue;
+                }
+                if (reader.next() != JsonPullReader.Token.BEGIN_OBJECT) {
+                    throw new IOException("\"Citizens\" must be an object: " + path);
+                }
+                while (reader.next() == JsonPullReader.Token.NAME) {
+                    String key = reader.stringValue();
+                    if (reader.next() != JsonPullReader.Token.BEGIN_OBJECT) {
+                        throw new IOException("Citizen \"" + key + "\" must be an object");
+                    }
+                    readCitizen(reader, key, scores);
+                    count++;
+                }
+            }
+            if (token != JsonPullReader.Token.END_OBJECT) {
+                throw new IOException("Malformed CitizenData: " + path);
+            }
+            return count;
+        }
+    }
+
+    // 读取一个市民对象(BEGIN_OBJECT 已读)，分数先暂存，ID可能出现在分数之后
+    private void readCitizen(JsonPullReader reader, String key, float[] scores) throws IOException {
+        Arrays.fill(scores, 0f);
+        int id = -1;
+        String name = key;
+        byte gender = GENDER_UNKNOWN;
+        while (reader.next() == JsonPullReader.Token.NAME) {
+            CharSequence field = reader.textValue();
+            if ("ID".contentEquals(field)) {
+                JsonPullReader.Token value = reader.next();
+                if (value == JsonPullReader.Token.NUMBER) {
+                    id = (int) reader.numberValue();
+                } else {
+                    reader.skipRest(value);
+                }
+            } else if ("Name".contentEquals(field)) {
+                JsonPullReader.Token value = reader.next();
+                if (value == JsonPullReader.Token.STRING) {
+                    name = reader.stringValue();
+                } else {
+                    reader.skipRest(value);
+                }
+            } else if ("Gender".contentEquals(field)) {
+                JsonPullReader.Token value = reader.next();
+                if (value == JsonPullReader.Token.STRING) {
+                    gender = parseGender(reader.stringValue());
+                } else {
+                    reader.skipRest(value);
+                }
+            } else if ("Personality".contentEquals(field)) {
+                readPersonality(reader, scores);
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (id < 0) {
+            id = size;
+        }
+        put(id, name, gender);
+        for (int t = 0; t < TRAITS.length; t++) {
+            columns[t][id] = scores[t];
+        }
+    }
+
+    // Personality -> scores -> 分组 -> 分数，类型不符的值整体跳过，不影响后续解析
+    private static void readPersonality(JsonPullReader reader, float[] scores) throws IOException {
+        JsonPullReader.Token token = reader.next();
+        if (token != JsonPullReader.Token.BEGIN_OBJECT) {
+            reader.skipRest(token);
+            return;
+        }
+        while (reader.next() == JsonPullReader.Token.NAME) {
+            if (!"scores".contentEquals(reader.textValue())) {
+                reader.skipValue();
+                continue;
+            }
+            token = reader.next();
+            if (token != JsonPullReader.Token.BEGIN_OBJECT) {
+                reader.skipRest(token);
+                continue;
+            }
+            while (reader.next() == JsonPullReader.Token.NAME) {
+                String group = reader.stringValue();
+                token = reader.next();
+                if (token != JsonPullReader.Token.BEGIN_OBJECT) {
+                    reader.skipRest(token);
+                    continue;
+                }
+                while (reader.next() == JsonPullReader.Token.NAME) {
+                    Trait trait = findTrait(group, reader.textValue());
+                    if (trait == null) {
+                        // 非数值字段，如 communicationStyle
+                        reader.skipValue();
+                    } else if ((token = reader.next()) == JsonPullReader.Token.NUMBER) {
+                        scores[trait.ordinal()] = (float) reader.numberValue();
+                    } else {
+                        reader.skipRest(token);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Trait findTrait(String group, CharSequence key) {
+        for (Trait trait : TRAITS) {
+            if (trait.getGroup().equals(group) && startsWith(key, trait.getKey())) {
+                return trait;
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(CharSequence text, String prefix) {
+        if (text.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // naturalSelf 中的键带有中文注释后缀(如 "dominance支配度")，按前缀匹配
+    private static double findScore(JSONObject group, String key) {
+        if (group.has(key)) {
+            return group.optDouble(key, 0);
+        }
+        Iterator<?> keys = group.keys();
+        while (keys.hasNext()) {
+            String name = (String) keys.next();
+            if (name.startsWith(key)) {
+                return group.optDouble(name, 0);
+            }
+        }
+        return 0;
+    }
+
+    public static byte parseGender(String gender) {
+        if ("male".equalsIgnoreCase(gender)) {
+            return GENDER_MALE;
+        } else if ("female".equalsIgnoreCase(gender)) {
+            return GENDER_FEMALE;
+        }
+        return GENDER_UNKNOWN;
+    }
+}
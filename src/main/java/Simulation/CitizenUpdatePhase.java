@@ -0,0 +1,200 @@
+package Simulation;
+
+import TimeControl.TickSystem;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+并行市民更新阶段(Fork-join citizen update phase)
+
+每个Tick把全部市民切分成若干块，在 ForkJoinPool 上并行执行 CitizenUpdater：
+1. 每块先把 updater 声明写入的列复制到写入缓冲，再由 updater 写入新值，最后把这些列有变化的市民标记为脏；
+2. 全部块完成后交换这些列的读写缓冲，其余列不复制、不比较；
+   块按64个ID对齐，每个脏标记字只属于一个块，标记时不需要原子操作；
+3. 各块只读取上一Tick的值，结果与线程数和调度顺序无关，可复现。
+作为 TickSystem 注册到 TickEngine 时名称为 "citizens"。
+updater 为 ContinuousCitizenUpdater 时支持跳跃模式：跳过的Tick按同样的分块方式调用 advance 一次推进。
+ */
+public class CitizenUpdatePhase implements TickSystem {
+    // ==================== 常量定义 ====================
+    static final int MIN_CHUNK_SIZE = 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // ==================== 成员变量 ====================
+    private final CitizenStore store;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private volatile CitizenUpdater updater;
+    private volatile long updatedCount = 0;
+    private volatile long advancedCount = 0;
+
+    // ==================== 构造方法 ====================
+    public CitizenUpdatePhase(CitizenStore store) {
+        this(store, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CitizenUpdatePhase(CitizenStore store, int parallelism) {
+        this(store, new ForkJoinPool(Math.max(1, parallelism)), MIN_CHUNK_SIZE);
+    }
+
+    public CitizenUpdatePhase(CitizenStore store, ForkJoinPool pool, int chunkSize) {
+        this.store = store;
+        this.pool = pool;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // ==================== 配置方法 ====================
+
+    /**
+     * 设置市民更新逻辑，null 表示跳过更新阶段
+     */
+    public void setUpdater(CitizenUpdater updater) {
+        this.updater = updater;
+    }
+
+    public CitizenUpdater getUpdater() {
+        return updater;
+    }
+
+    // ==================== 执行方法 ====================
+
+    @Override
+    public String getName() {
+        return "citizens";
+    }
+
+    @Override
+    public void tick(long tick) {
+        int updated = run(tick);
+        if (updated > 0) {
+            updatedCount += updated;
+        }
+    }
+
+    /**
+     * 没有 updater 或没有市民时不需要执行；连续型 updater 由其决定下一次逐Tick更新的时间
+     */
+    @Override
+    public long nextEventTick(long tick) {
+        CitizenUpdater current = updater;
+        if (current == null || store.size() == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (current instanceof ContinuousCitizenUpdater continuous) {
+            return Math.max(continuous.nextEventTick(tick), tick + 1);
+        }
+        return tick + 1;
+    }
+
+    /**
+     * 一次推进 (from, to] 之间的Tick：每个市民实际只计算一次，计入更新数；跳过的 市民数 × Tick数 单独计入推进数
+     */
+    @Override
+    public void advance(long from, long to) {
+        CitizenUpdater current = updater;
+        if (!(current instanceof ContinuousCitizenUpdater continuous)) {
+            TickSystem.super.advance(from, to);
+            return;
+        }
+        int updated = runChunks(continuous.writtenTraits(), (lo, hi) -> continuous.advance(store, lo, hi, from, to));
+        if (updated > 0) {
+            updatedCount += updated;
+            advancedCount += (long) updated * (to - from);
+        }
+    }
+
+    /**
+     * 执行一次更新阶段，返回本次更新的市民数量
+     */
+    public int run(long tick) {
+        CitizenUpdater current = updater;
+        if (current == null) {
+            return 0;
+        }
+        return runChunks(current.writtenTraits(), (from, to) -> current.update(store, from, to, tick));
+    }
+
+    private int runChunks(CitizenStore.Trait[] traits, Chunk action) {
+        int size = store.size();
+        if (size == 0) {
+            return 0;
+        }
+        store.enableDoubleBuffer();
+
+        // 每个市民只读取当前缓冲，切分方式不影响结果，这里只按并行度决定块大小
+        int target = (size + pool.getParallelism() * CHUNKS_PER_THREAD - 1) / (pool.getParallelism() * CHUNKS_PER_THREAD);
+        int chunk = Math.max(chunkSize, target);
+        if (size <= chunk) {
+            store.copyToNext(0, size, traits);
+            action.apply(0, size);
+            store.markChanged(0, size, traits);
+        } else {
+            pool.invoke(new ChunkTask(traits, action, 0, size, chunk));
+        }
+        store.swapBuffers(traits);
+        return size;
+    }
+
+    /**
+     * 关闭线程池
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 获取作为 TickSystem 运行以来实际计算的市民数(逐Tick更新每次计一次，跳跃推进每段计一次)，用于吞吐量
+     */
+    public long getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * 获取跳跃推进覆盖的 市民数 × Tick数(模拟时间上的推进量，不代表计算量)
+     */
+    public long getAdvancedCount() {
+        return advancedCount;
+    }
+
+    // ==================== 分块任务 ====================
+    @FunctionalInterface
+    private interface Chunk {
+        void apply(int from, int to);
+    }
+
+    @SuppressWarnings("serial") // 只在线程池中执行，不会被序列化
+    private final class ChunkTask extends RecursiveAction {
+        private final CitizenStore.Trait[] traits;
+        private final Chunk action;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        ChunkTask(CitizenStore.Trait[] traits, Chunk action, int from, int to, int chunk) {
+            this.traits = traits;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            // 中点向下对齐到64，块边界不会落在同一个脏标记字中间；不足两个字切不开时整块执行
+            int mid = ((from + to) >>> 1) & ~63;
+            if (to - from <= chunk || mid <= from) {
+                store.copyToNext(from, to, traits);
+                action.apply(from, to);
+                store.markChanged(from, to, traits);
+                return;
+            }
+            invokeAll(new ChunkTask(traits, action, from, mid, chunk),
+                      new ChunkTask(traits, action, mid, to, chunk));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package Simulation;
+
+/**
+ * 市民更新逻辑(人格、财务等)
+ * 每次调用负责 [from, to) 区间的市民：只从 store 的当前缓冲读取，只向写入缓冲(setNext/nextColumn)写入，
+ * 不得写入区间以外的市民，这样并行分块的结果与线程数无关。
+ * writtenTraits 声明会写入的列：只有这些列经过写入缓冲、参与变化比较和交换，其余列保持不变。
+ */
+@FunctionalInterface
+public interface CitizenUpdater {
+    void update(CitizenStore store, int from, int to, long tick);
+
+    /**
+     * 会写入的分数列，默认全部列
+     */
+    default CitizenStore.Trait[] writtenTraits() {
+        return CitizenStore.Trait.values();
+    }
+}
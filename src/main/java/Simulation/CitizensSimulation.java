@@ -1,33 +1,33 @@
 package Simulation;
 
-import org.json.JSONObject;
+import org.json.JSONException;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 
 public class CitizensSimulation {
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(CitizensSimulation.class);
+
     public static void main(String[] args) {
         try {
-            //Read NameRepository.json file to String
-            String content = new String(Files.readAllBytes(Paths.get("src/main/resources/PersonalityResources/NameRepository.json")));
-            CreateLogFile.getInstance().log("Successfully loaded NameRepository.json");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
+            //Compile NameRepository.json into alias tables
+            NameSampler NameRepository = NameSampler.load("src/main/resources/PersonalityResources/NameRepository.json");
+            LOG.log("Successfully loaded NameRepository.json");
             CreateLogFile.getInstance().flush();
-            JSONObject NameRepository = new JSONObject(content);
             //double
         } catch (IOException e){
             e.printStackTrace();
+        } catch (JSONException e) {
+            e.printStackTrace();
         }
 
         try {
-            //read .json file to String
-            String content = new String(Files.readAllBytes(Paths.get("src/main/resources/PersonalityResources/CitizenData")));
-            CreateLogFile.getInstance().log("Successfully loaded CitizenData.json");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
+            //stream .json file citizen by citizen into the column store
+            CitizenStore store = new CitizenStore();
+            int count = store.loadFromJson(Paths.get("src/main/resources/PersonalityResources/CitizenData.json"));
+            LOG.log("Successfully loaded CitizenData.json");
+            LOG.log("Loaded %d citizens into CitizenStore", count);
             CreateLogFile.getInstance().flush();
-            //Create JSONObject from String
-            JSONObject obj = new JSONObject(content);
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -0,0 +1,14 @@
+package Simulation;
+
+/**
+ * 可以跳过Tick的市民更新逻辑(连续状态有解析解，例如指数回归)
+ * advance 把 [from, to) 区间的市民从 fromTick 一次推进到 toTick，结果应与逐Tick调用 update 相同(允许浮点误差)，
+ * 读写约定与 update 相同；nextEventTick 返回下一个必须逐Tick调用 update 的Tick数，没有时返回 Long.MAX_VALUE。
+ */
+public interface ContinuousCitizenUpdater extends CitizenUpdater {
+    void advance(CitizenStore store, int from, int to, long fromTick, long toTick);
+
+    default long nextEventTick(long tick) {
+        return Long.MAX_VALUE;
+    }
+}
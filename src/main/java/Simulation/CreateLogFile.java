@@ -5,6 +5,7 @@ WHAT IS CHANGE:
 2.String fileNameStrategy was deleted;
 3.Method setFileNameStrategy was deleted;
 4.Method rotateLogFile was deleted;
+5.Rotation is back without the name strategies: the writer thread switches to the next Log_yyyyMMdd_NNN.log by size, by interval or at midnight, rotated files are gzipped in the background;
 
 **1.ABOUT LOGGING:**
 `log(string message)` can record logs in the level of INFO;
@@ -13,26 +14,55 @@ WHAT IS CHANGE:
 `log(LogLevel level,String format,Object... args)` can record logs with format and level;
 `log(String message,Throwable e)` can record abnormal informations; `logException(Throwable e)` can record the entire abnormal stack; `logKeyValue(String key,Object value)` can record the Key-value pairs(键值对); `logSeprarator()` can record a Separator;
 `logSection(String title)` can record a section with title.
+`log(LogLevel level,Supplier<String> message)` can build the message only when the level is enabled; `isEnabled(LogLevel level)` can check the level before doing expensive work; exceptions are expanded on the writer thread, not the caller thread;
+`CreateLogFile.category(Class<?> owner)` can get a logger for a package(Simulation/TimeControl/EasyGui), it has the same `log` methods and follows `setLogLevel(String packageName,LogLevel level)`, or the global level when the package has none;
+`logLimited(LogLevel level,String format,Object... args)` can record at most N logs per second for the same format(`setDefaultRateLimit`, `setRateLimit(key, n)`), `logLimitedByKey(String key,...)` can use your own key; `logSampled(double rate,LogLevel level,String format,Object... args)` can record only a random part of the logs; the suppressed logs are counted and written as one summary line per key and second, also for keys that went quiet; keys unused for a minute are forgotten.
 
 **2.ABOUT QUERY**
 `getCurrentLogPath()` can get the entire path of our logs
 `getLogCount()` can get how many logs it catch
 `getQueueRemainingCapacity()` can get the Remaining capacity of the log queue(日志队列剩余容量);
+`getQueueSize()` and `getQueueCapacity()` can get the current depth and the size of the log queue;
+`getDroppedCount()` can get how many logs were dropped because the queue was full;
+`getSuppressedCount()` can get how many logs were suppressed by rate limits and sampling;
 
 **3.HOW TO MANAGE**
-`flush()` can flush the buffer and write file compulsory(强制的);
+`flush()` can flush the buffer and write file compulsory(强制的), every log recorded before the call is on disk when it returns;
+`setRotationSize(long bytes)` / `setRotationInterval(long millis)` can set when to start a new log file(0 means never, the date change always rotates); `setMaxRetainedFiles(int count)` can set how many old log files are kept; `setCompressRotatedFiles(boolean compress)` can turn gzip of rotated files on or off;
+`setFlushPolicy(FlushPolicy policy)` can choose when the writer thread flushes: SIZE(`setFlushSize`), TIME(`setFlushInterval`) or EXPLICIT(only `flush()`); ERROR and FATAL logs are always flushed at once;
 `shutdown()` can shut the logging system(it will automatically work when we quit);
+`setOverflowPolicy(OverflowPolicy policy)` can choose what happens when the queue is full: BLOCK(wait), DROP, or DROP_BELOW_LEVEL(drop logs below WARN, wait for the others);
 
-**4.LOG LEVLES:**
+**4.LOG SINK:**
+the default sink writes through a BufferedWriter; start with `-DCreateLogFile.sink=channel` to encode UTF-8 into pooled direct ByteBuffers and write them with FileChannel gathering writes;
+
+**5.LOG LEVLES:**
 == DEBUG/INFO/WARN/ERROR/FATAL ==
 use`logger.setLogLevel(LogLevel.<//Log levels>);` to set record leve
  */
 import java.io.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Formatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 public class CreateLogFile {
     // ==================== 单例模式 ====================
@@ -51,12 +81,25 @@ public class CreateLogFile {
     
     // ==================== 常量定义 ====================
     private static final String DEFAULT_LOG_DIRECTORY = "logs";
-    private static final int MAX_QUEUE_SIZE = 10000;
-    private static final int BATCH_SIZE = 100;
+    private static final int MAX_QUEUE_SIZE = 16384;  // 环形缓冲容量，必须是2的幂
+    private static final int BLOCK_SPIN_TRIES = 100;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    private static final int BATCH_SIZE = 1024;       // 写入线程每次最多取出的日志数
+    private static final int BATCH_BUFFER_SIZE = 65536;
+    private static final int DEFAULT_FLUSH_SIZE = 65536;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final long IDLE_PARK_NANOS = 1_000_000_000L;
+    private static final long FLUSH_WAIT_NANOS = 5_000_000_000L;
+    private static final long FLUSH_POLL_NANOS = 100_000;
     private static final DateTimeFormatter TIMESTAMP_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
     private static final DateTimeFormatter DATE_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyyMMdd");
+    // Log_20240101_001.log 或轮转压缩后的 Log_20240101_001.log.gz
+    private static final Pattern LOG_FILE_PATTERN = Pattern.compile("Log_(\\d{8})_(\\d+)\\.log(\\.gz)?");
+    private static final long DEFAULT_ROTATION_SIZE = 64L << 20;  // 64MB
+    private static final int DEFAULT_MAX_RETAINED_FILES = 30;
+    private static final String SUPPRESSED_FORMAT = "[RateLimit] %d similar logs suppressed: %s";
     
     // ==================== 日志级别 ====================
     public enum LogLevel {
@@ -67,25 +110,76 @@ public class CreateLogFile {
         public int getLevel() { return level; }
     }
     
-    private LogLevel currentLogLevel = LogLevel.INFO;
+    private volatile LogLevel currentLogLevel = LogLevel.INFO;
+    
+    // 按包设置的日志级别，没有设置的包使用 currentLogLevel
+    private static final Map<String, Category> categories = new ConcurrentHashMap<>();
+    
+    // ==================== 队列满时的策略 ====================
+    public enum OverflowPolicy {
+        BLOCK,             // 等待写入线程腾出空间(默认，不丢日志)
+        DROP,              // 直接丢弃
+        DROP_BELOW_LEVEL   // 低于 overflowKeepLevel 的丢弃，其余等待
+    }
+    
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private volatile LogLevel overflowKeepLevel = LogLevel.WARN;
+    
+    // ==================== 刷新策略 ====================
+    public enum FlushPolicy {
+        SIZE,      // 未刷新的字符数达到 flushSize 时刷新
+        TIME,      // 距上次刷新超过 flushInterval 时刷新(默认)
+        EXPLICIT   // 只在调用 flush() 或关闭时刷新
+    }
+    
+    private volatile FlushPolicy flushPolicy = FlushPolicy.TIME;
+    private volatile int flushSize = DEFAULT_FLUSH_SIZE;
+    private volatile long flushIntervalNanos = DEFAULT_FLUSH_INTERVAL_MILLIS * 1_000_000;
     
     // ==================== 成员变量 ====================
     private String logDirectory;
-    private String currentLogFileName;
-    private BufferedWriter writer;
-    private BlockingQueue<String> logQueue;
+    private volatile String currentLogFileName;
+    private String currentDate;
+    private int currentSequence;
+    private LogSink sink;
+    private LogRingBuffer logQueue;
     private volatile boolean running = true;
-    private AtomicLong logCounter = new AtomicLong(0);
+    private final LongAdder droppedCounter = new LongAdder();
+    private final LogRateLimiter rateLimiter = new LogRateLimiter();
     private Thread writerThread;
+    private volatile boolean writerParked = false;
+    private final AtomicLong flushTarget = new AtomicLong();   // flush() 要求写入到的位置
+    private volatile long flushedPosition = 0;                 // 已刷新到磁盘的位置
+    
+    // 以下只由写入线程使用：同一毫秒内的日志复用时间戳文本
+    private long cachedTimestampMillis = Long.MIN_VALUE;
+    private String cachedTimestamp;
+    private boolean urgentPending = false;
+    private long unflushedChars = 0;
+    
+    // ==================== 日志轮转 ====================
+    private volatile long rotationSize = DEFAULT_ROTATION_SIZE;
+    private volatile long rotationIntervalMillis = 0;
+    private volatile int maxRetainedFiles = DEFAULT_MAX_RETAINED_FILES;
+    private volatile boolean compressRotatedFiles = true;
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "LogCompressor-Thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 以下只由写入线程使用
+    private long currentFileOpenedMillis;
+    private long nextMidnightMillis;
     
     // ==================== 构造方法 ====================
     private CreateLogFile() {
         this(DEFAULT_LOG_DIRECTORY);
     }
     
-    private CreateLogFile(String logDirectory) {
+    // 包内可见：测试用临时目录创建独立的实例，用完后调用 shutdown()
+    CreateLogFile(String logDirectory) {
         this.logDirectory = logDirectory;
-        this.logQueue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
+        this.logQueue = new LogRingBuffer(MAX_QUEUE_SIZE);
         initLogFile();
         startWriterThread();
         registerShutdownHook();
@@ -113,105 +207,347 @@ public class CreateLogFile {
     
     // 简化：只使用带序号的日期文件名
     private void createNewLogFile() throws IOException {
-        currentLogFileName = generateSequentialFileName();
-        File logFile = new File(logDirectory, currentLogFileName);
-        writer = new BufferedWriter(new FileWriter(logFile, true));
+        LocalDateTime now = LocalDateTime.now();
+        currentDate = now.format(DATE_FORMATTER);
+        currentSequence = findMaxSequence(currentDate) + 1;
+        openLogFile(now);
         
         // 写入日志会话开始标记
         writeToFile("========== 日志会话开始 ==========");
-        writeToFile("日志文件: " + logFile.getAbsolutePath());
+        writeToFile("日志文件: " + getCurrentLogPath());
     }
     
-    // 生成带日期和序号的文件名
-    private String generateSequentialFileName() {
-        LocalDateTime now = LocalDateTime.now();
-        String dateStr = now.format(DATE_FORMATTER);
-        
-        // 查找当天已存在的文件，确定序号
-        File directory = new File(logDirectory);
-        if (!directory.exists()) {
-            return "Log_" + dateStr + "_001.log";
+    private void openLogFile(LocalDateTime now) throws IOException {
+        // 序号不足3位补0
+        currentLogFileName = "Log_" + currentDate + "_" + String.format("%03d", currentSequence) + ".log";
+        currentFileOpenedMillis = System.currentTimeMillis();
+        nextMidnightMillis = now.toLocalDate().plusDays(1).atStartOfDay(ZoneId.systemDefault())
+            .toInstant().toEpochMilli();
+        sink = LogSink.open(new File(logDirectory, currentLogFileName));
+    }
+    
+    private void closeSink() {
+        if (sink == null) {
+            return;
         }
-        
-        // 获取当天所有的日志文件
-        File[] files = directory.listFiles((dir, name) -> 
-            name.startsWith("Log_" + dateStr) && name.endsWith(".log"));
-        
+        try {
+            sink.close();
+        } catch (IOException e) {
+            System.err.println("关闭日志文件失败: " + e.getMessage());
+        }
+        sink = null;
+    }
+    
+    // 只在启动时扫描一次目录，之后的序号由写入线程递增
+    private int findMaxSequence(String dateStr) {
         int maxNumber = 0;
-        if (files != null) {
-            for (File file : files) {
-                String fileName = file.getName();
-                // 提取序号部分 Log_20240101_001.log
-                String numberStr = fileName.replaceAll(".*_(\\d+)\\.log", "$1");
-                try {
-                    int number = Integer.parseInt(numberStr);
-                    maxNumber = Math.max(maxNumber, number);
-                } catch (NumberFormatException e) {
-                    // 忽略解析失败的文件名
-                }
+        String[] names = new File(logDirectory).list();
+        if (names == null) {
+            return maxNumber;
+        }
+        for (String name : names) {
+            Matcher matcher = LOG_FILE_PATTERN.matcher(name);
+            if (matcher.matches() && matcher.group(1).equals(dateStr)) {
+                maxNumber = Math.max(maxNumber, Integer.parseInt(matcher.group(2)));
             }
         }
-        
-        // 生成新的序号（最大序号+1，不足3位补0）
-        int newNumber = maxNumber + 1;
-        String sequentialNumber = String.format("%03d", newNumber);
-        return "Log_" + dateStr + "_" + sequentialNumber + ".log";
+        return maxNumber;
+    }
+    
+    // ==================== 日志轮转 ====================
+    
+    private boolean rotationDue(long nowMillis) {
+        long size = rotationSize;
+        long interval = rotationIntervalMillis;
+        return nowMillis >= nextMidnightMillis
+            || (size > 0 && sink != null && sink.size() >= size)
+            || (interval > 0 && nowMillis - currentFileOpenedMillis >= interval);
+    }
+    
+    // 在写入线程中切换到下一个日志文件，旧文件交给后台线程压缩和清理
+    private synchronized void rotateLogFile() {
+        LocalDateTime now = LocalDateTime.now();
+        String date = now.format(DATE_FORMATTER);
+        File previous = new File(logDirectory, currentLogFileName);
+        writeToFile("========== 日志轮转 ==========");
+        flushWriter();
+        closeSink();
+        if (date.equals(currentDate)) {
+            currentSequence++;
+        } else {
+            currentDate = date;
+            currentSequence = findMaxSequence(date) + 1;
+        }
+        try {
+            openLogFile(now);
+            writeToFile("日志文件: " + getCurrentLogPath() + " (接续 " + previous.getName() + ")");
+        } catch (IOException e) {
+            // 新文件打不开时丢弃日志，到下一个轮转时刻再试
+            System.err.println("日志轮转失败: " + e.getMessage());
+        }
+        String current = currentLogFileName;
+        compressor.execute(() -> {
+            if (compressRotatedFiles) {
+                compressFile(previous);
+            }
+            applyRetention(current);
+        });
+    }
+    
+    private void compressFile(File file) {
+        File compressed = new File(file.getPath() + ".gz");
+        File temp = new File(file.getPath() + ".gz.tmp");
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 65536)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            System.err.println("压缩日志失败: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (temp.renameTo(compressed)) {
+            file.delete();
+        }
+    }
+    
+    // 按日期和序号保留最新的 maxRetainedFiles 个旧日志(不含当前文件)
+    private void applyRetention(String currentName) {
+        int keep = maxRetainedFiles;
+        String[] names = new File(logDirectory).list();
+        if (keep <= 0 || names == null) {
+            return;
+        }
+        List<String> oldFiles = new ArrayList<>();
+        for (String name : names) {
+            if (!name.equals(currentName) && LOG_FILE_PATTERN.matcher(name).matches()) {
+                oldFiles.add(name);
+            }
+        }
+        if (oldFiles.size() <= keep) {
+            return;
+        }
+        oldFiles.sort(Comparator.comparingLong(CreateLogFile::fileOrder));
+        for (int i = 0; i < oldFiles.size() - keep; i++) {
+            new File(logDirectory, oldFiles.get(i)).delete();
+        }
+    }
+    
+    private static long fileOrder(String name) {
+        Matcher matcher = LOG_FILE_PATTERN.matcher(name);
+        matcher.matches();
+        return Long.parseLong(matcher.group(1)) * 1_000_000L + Long.parseLong(matcher.group(2));
     }
     
     private void startWriterThread() {
-        writerThread = new Thread(() -> {
-            int batchCount = 0;
-            StringBuilder batchBuffer = new StringBuilder();
+        writerThread = new Thread(this::runWriter);
+        writerThread.setDaemon(true);
+        writerThread.setName("LogWriter-Thread");
+        writerThread.start();
+    }
+    
+    // 写入线程主循环：批量取出日志写入缓冲，按刷新策略刷新，队列为空时挂起直到生产者唤醒
+    private void runWriter() {
+        StringBuilder batchBuffer = new StringBuilder(BATCH_BUFFER_SIZE);
+        Formatter formatter = new Formatter(batchBuffer);
+        Consumer<LogEvent> append = event -> {
+            appendEvent(batchBuffer, formatter, event);
+            if (event.level.getLevel() >= LogLevel.ERROR.getLevel()) {
+                urgentPending = true;
+            }
+        };
+        // 限流汇总直接写入本批次，写入线程不能向自己的队列提交日志(BLOCK 策略下会等待自己)
+        LogEvent summaryEvent = new LogEvent(0);
+        LogRateLimiter.SummaryHandler summary = (limit, suppressed) -> {
+            summaryEvent.timestamp = System.currentTimeMillis();
+            summaryEvent.level = limit.level();
+            summaryEvent.threadName = Thread.currentThread().getName();
+            summaryEvent.format = SUPPRESSED_FORMAT;
+            summaryEvent.args = new Object[]{suppressed, limit.key};
+            append.accept(summaryEvent);
+            summaryEvent.clear();
+        };
+        long lastFlushNanos = System.nanoTime();
+        long lastSweepNanos = lastFlushNanos;
+        
+        while (running || logQueue.hasPublished()) {
+            int drained = logQueue.drain(append, BATCH_SIZE);
+            if (drained > 0) {
+                writeBatchToFile(batchBuffer);
+                batchBuffer.setLength(0);
+                // 有新日志时才检查轮转，空闲时不产生空文件
+                if (rotationDue(System.currentTimeMillis())) {
+                    rotateLogFile();
+                }
+            }
             
-            while (running || !logQueue.isEmpty()) {
-                try {
-                    // 批量收集日志
-                    String log = logQueue.poll();
-                    if (log != null) {
-                        batchBuffer.append(log).append(System.lineSeparator());
-                        batchCount++;
-                        
-                        // 达到批量大小或队列为空时写入
-                        if (batchCount >= BATCH_SIZE || logQueue.isEmpty()) {
-                            writeBatchToFile(batchBuffer.toString());
-                            batchBuffer.setLength(0);
-                            batchCount = 0;
-                        }
-                    } else {
-                        // 队列为空，短暂等待
-                        Thread.sleep(10);
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+            long now = System.nanoTime();
+            // 不再被调用的键没有调用者触发汇总，由写入线程每个窗口补写一次并清理空闲的键
+            if (now - lastSweepNanos >= LogRateLimiter.WINDOW_NANOS) {
+                lastSweepNanos = now;
+                rateLimiter.sweep(now, summary);
+                if (batchBuffer.length() > 0) {
+                    writeBatchToFile(batchBuffer);
+                    batchBuffer.setLength(0);
                 }
             }
             
-            // 写入剩余日志
-            if (batchBuffer.length() > 0) {
-                writeBatchToFile(batchBuffer.toString());
+            if (flushDue(now, lastFlushNanos)) {
+                flushWriter();
+                lastFlushNanos = now;
             }
-        });
-        
-        writerThread.setDaemon(true);
-        writerThread.setName("LogWriter-Thread");
-        writerThread.start();
+            
+            if (drained == 0) {
+                waitForEvents(now, lastFlushNanos);
+            }
+        }
+        flushWriter();
+    }
+    
+    private boolean flushDue(long now, long lastFlushNanos) {
+        if (urgentPending) {
+            return true;
+        }
+        long requested = flushTarget.get();
+        if (requested > flushedPosition && logQueue.consumedCount() >= requested) {
+            return true;
+        }
+        if (unflushedChars == 0) {
+            return false;
+        }
+        switch (flushPolicy) {
+            case SIZE:
+                return unflushedChars >= flushSize;
+            case TIME:
+                return now - lastFlushNanos >= flushIntervalNanos;
+            default:
+                return false;
+        }
+    }
+    
+    // 挂起前设置 writerParked 并再检查一次队列，生产者发布后看到 writerParked 即唤醒
+    private void waitForEvents(long now, long lastFlushNanos) {
+        long parkNanos = IDLE_PARK_NANOS;
+        if (unflushedChars > 0 && flushPolicy == FlushPolicy.TIME) {
+            parkNanos = Math.max(1, lastFlushNanos + flushIntervalNanos - now);
+        }
+        writerParked = true;
+        if (running && !logQueue.hasPublished()) {
+            LockSupport.parkNanos(this, parkNanos);
+        }
+        writerParked = false;
+    }
+    
+    // 在写入线程中格式化一条日志：[时间][级别][线程] 内容
+    private void appendEvent(StringBuilder buffer, Formatter formatter, LogEvent event) {
+        int lineStart = buffer.length();
+        buffer.append('[').append(timestampOf(event.timestamp)).append("][")
+              .append(event.level).append("][")
+              .append(event.threadName).append("] ");
+        int prefixEnd = buffer.length();
+        if (event.format == null) {
+            if (event.message != null) {
+                buffer.append(event.message);
+            }
+        } else {
+            int start = buffer.length();
+            try {
+                formatter.format(event.format, event.args);
+            } catch (RuntimeException e) {
+                // 格式串错误或参数的 toString()/formatTo 抛出异常都不能让写入线程退出，原样记录
+                buffer.setLength(start);
+                buffer.append(event.format).append(' ');
+                appendRawArgs(buffer, event.args);
+                buffer.append(" (").append(e).append(')');
+            }
+        }
+        if (event.thrown != null) {
+            String prefix = buffer.substring(lineStart, prefixEnd);
+            if (buffer.length() > prefixEnd) {
+                buffer.append(System.lineSeparator()).append(prefix);
+            }
+            appendThrowable(buffer, prefix, event.thrown);
+            return;
+        }
+        buffer.append(System.lineSeparator());
+    }
+    
+    // 参数的 toString() 也可能抛出异常，此时只记录类名和哈希值
+    private static void appendRawArgs(StringBuilder buffer, Object[] args) {
+        if (args == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('[');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            Object arg = args[i];
+            int start = buffer.length();
+            try {
+                buffer.append(arg);
+            } catch (RuntimeException e) {
+                buffer.setLength(start);
+                buffer.append(arg.getClass().getName()).append('@').append(Integer.toHexString(System.identityHashCode(arg)));
+            }
+        }
+        buffer.append(']');
+    }
+    
+    // 异常信息一行，堆栈逐行记录，每行带相同的前缀
+    private void appendThrowable(StringBuilder buffer, String prefix, Throwable e) {
+        buffer.append("异常: ").append(e.getMessage()).append(System.lineSeparator());
+        StringWriter sw = new StringWriter();
+        e.printStackTrace(new PrintWriter(sw));
+        for (String line : sw.toString().split("\n")) {
+            buffer.append(prefix).append("  ").append(line.trim()).append(System.lineSeparator());
+        }
+    }
+    
+    private String timestampOf(long millis) {
+        if (millis != cachedTimestampMillis) {
+            cachedTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault())
+                .format(TIMESTAMP_FORMATTER);
+            cachedTimestampMillis = millis;
+        }
+        return cachedTimestamp;
     }
     
-    private synchronized void writeBatchToFile(String logs) {
+    // 写入输出端但不刷新，由刷新策略决定何时落盘
+    private synchronized void writeBatchToFile(StringBuilder logs) {
+        if (sink == null) {
+            return;
+        }
         try {
-            writer.write(logs);
-            writer.flush();
+            sink.write(logs);
+            unflushedChars += logs.length();
         } catch (IOException e) {
             System.err.println("批量写入日志失败: " + e.getMessage());
         }
     }
     
+    private synchronized void flushWriter() {
+        if (sink == null) {
+            return;  // 已关闭
+        }
+        long position = logQueue.consumedCount();
+        try {
+            sink.flush();
+        } catch (IOException e) {
+            System.err.println("刷新缓冲区失败: " + e.getMessage());
+        }
+        unflushedChars = 0;
+        urgentPending = false;
+        flushedPosition = position;
+    }
+    
     private synchronized void writeToFile(String log) {
+        if (sink == null) {
+            return;
+        }
         try {
-            writer.write(log);
-            writer.newLine();
-            writer.flush();
+            sink.write(new StringBuilder(log).append(System.lineSeparator()));
+            sink.flush();
         } catch (IOException e) {
             System.err.println("写入日志失败: " + e.getMessage());
         }
@@ -238,17 +574,60 @@ public class CreateLogFile {
         if (level.getLevel() < currentLogLevel.getLevel()) {
             return;  // 低于当前日志级别，不记录
         }
-        
-        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-        String threadName = Thread.currentThread().getName();
-        String formattedLog = String.format("[%s][%s][%s] %s", 
-            timestamp, level, threadName, message);
-        
-        try {
-            logQueue.put(formattedLog);
-            logCounter.incrementAndGet();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        enqueue(level, message, null, null);
+    }
+    
+    private void enqueue(LogLevel level, String message, String format, Object[] args) {
+        enqueue(level, message, format, args, null);
+    }
+    
+    // 只记录原始内容，时间戳、格式化和异常堆栈都交给写入线程
+    private void enqueue(LogLevel level, String message, String format, Object[] args, Throwable thrown) {
+        long timestamp = System.currentTimeMillis();
+        long position = claimSlot(level);
+        if (position < 0) {
+            droppedCounter.increment();
+            return;
+        }
+        LogEvent event = logQueue.get(position);
+        event.timestamp = timestamp;
+        event.level = level;
+        event.threadName = Thread.currentThread().getName();
+        event.message = message;
+        event.format = format;
+        event.args = args;
+        event.thrown = thrown;
+        logQueue.publish(position);
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+    
+    // 按溢出策略抢占槽位，放弃时返回 -1
+    private long claimSlot(LogLevel level) {
+        long position = logQueue.tryClaim();
+        if (position >= 0) {
+            return position;
+        }
+        OverflowPolicy policy = overflowPolicy;
+        if (policy == OverflowPolicy.DROP
+                || (policy == OverflowPolicy.DROP_BELOW_LEVEL && level.getLevel() < overflowKeepLevel.getLevel())) {
+            return -1;
+        }
+        // BLOCK：先自旋，再短暂挂起，直到写入线程腾出空间
+        for (int tries = 0; ; tries++) {
+            if (!running || Thread.currentThread().isInterrupted()) {
+                return -1;
+            }
+            if (tries < BLOCK_SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+            position = logQueue.tryClaim();
+            if (position >= 0) {
+                return position;
+            }
         }
     }
     
@@ -256,38 +635,35 @@ public class CreateLogFile {
      * 功能3: 格式化日志（类似String.format）
      */
     public void log(String format, Object... args) {
-        log(LogLevel.INFO, String.format(format, args));
+        log(LogLevel.INFO, format, args);
     }
     
     /**
      * 功能4: 带级别的格式化日志
+     * 格式化在写入线程中进行，参数在记录后不应再被修改
      */
     public void log(LogLevel level, String format, Object... args) {
-        log(level, String.format(format, args));
+        if (level.getLevel() < currentLogLevel.getLevel()) {
+            return;
+        }
+        enqueue(level, null, format, args);
     }
     
     /**
      * 功能5: 记录异常
      */
     public void log(String message, Throwable e) {
-        log(LogLevel.ERROR, message);
-        logException(e);
+        if (isEnabled(LogLevel.ERROR)) {
+            enqueue(LogLevel.ERROR, message, null, null, e);
+        }
     }
     
     /**
-     * 功能6: 记录异常堆栈
+     * 功能6: 记录异常堆栈(在写入线程中展开)
      */
     public void logException(Throwable e) {
-        log(LogLevel.ERROR, "异常: " + e.getMessage());
-        
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        e.printStackTrace(pw);
-        
-        // 分割堆栈跟踪，逐行记录
-        String[] lines = sw.toString().split("\n");
-        for (String line : lines) {
-            log(LogLevel.ERROR, "  " + line.trim());
+        if (isEnabled(LogLevel.ERROR)) {
+            enqueue(LogLevel.ERROR, null, null, null, e);
         }
     }
     
@@ -295,7 +671,7 @@ public class CreateLogFile {
      * 功能7: 快速记录键值对
      */
     public void logKeyValue(String key, Object value) {
-        log(String.format("%s: %s", key, value));
+        log("%s: %s", key, value);
     }
     
     /**
@@ -309,11 +685,87 @@ public class CreateLogFile {
      * 功能9: 记录带标题的分隔线
      */
     public void logSection(String title) {
+        if (!isEnabled(LogLevel.INFO)) {
+            return;
+        }
         logSeparator();
         log(">> " + title + " <<");
         logSeparator();
     }
     
+    /**
+     * 功能26: 限流日志，同一格式串每秒最多记录 N 条，其余只计数并汇总
+     */
+    public void logLimited(LogLevel level, String format, Object... args) {
+        logLimitedByKey(format, level, format, args);
+    }
+    
+    /**
+     * 功能27: 按指定的键限流(多个调用点共用一个额度，或同一格式串分开限流)
+     */
+    public void logLimitedByKey(String key, LogLevel level, String format, Object... args) {
+        if (isEnabled(level)) {
+            limited(key, level, format, args);
+        }
+    }
+    
+    private void limited(String key, LogLevel level, String format, Object[] args) {
+        LogRateLimiter.Limit limit = rateLimiter.limitFor(key);
+        reportSuppressed(limit, level, System.nanoTime());
+        if (limit.tryAcquire()) {
+            enqueue(level, null, format, args);
+        } else {
+            limit.suppress(level);
+        }
+    }
+    
+    /**
+     * 功能28: 抽样日志，以 rate(0~1) 的概率记录，未记录的按格式串计数并汇总
+     */
+    public void logSampled(double rate, LogLevel level, String format, Object... args) {
+        if (isEnabled(level)) {
+            sampled(rate, level, format, args);
+        }
+    }
+    
+    private void sampled(double rate, LogLevel level, String format, Object[] args) {
+        LogRateLimiter.Limit limit = rateLimiter.limitFor(format);
+        reportSuppressed(limit, level, System.nanoTime());
+        if (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate) {
+            enqueue(level, null, format, args);
+        } else {
+            limit.suppress(level);
+        }
+    }
+    
+    /**
+     * 功能32: 延迟构建的日志，只有级别开启时才调用 message.get()
+     */
+    public void log(LogLevel level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            enqueue(level, message.get(), null, null);
+        }
+    }
+    
+    public void log(Supplier<String> message) {
+        log(LogLevel.INFO, message);
+    }
+    
+    /**
+     * 功能33: 判断某个级别是否会被记录，用于保护代价较高的日志代码
+     */
+    public boolean isEnabled(LogLevel level) {
+        return level.getLevel() >= currentLogLevel.getLevel();
+    }
+    
+    // 每个键每个窗口最多一条汇总
+    private void reportSuppressed(LogRateLimiter.Limit limit, LogLevel level, long now) {
+        long suppressed = limit.rollWindow(now);
+        if (suppressed > 0) {
+            enqueue(level, null, SUPPRESSED_FORMAT, new Object[]{suppressed, limit.key});
+        }
+    }
+    
     // ==================== 配置方法 ====================
     
     /**
@@ -321,7 +773,95 @@ public class CreateLogFile {
      */
     public void setLogLevel(LogLevel level) {
         this.currentLogLevel = level;
-        log(LogLevel.INFO, "日志级别设置为: " + level);
+        log(LogLevel.INFO, "日志级别设置为: %s", level);
+    }
+    
+    /**
+     * 功能34: 设置某个包(Simulation/TimeControl/EasyGui)的日志级别，null 表示跟随全局级别
+     */
+    public void setLogLevel(String packageName, LogLevel level) {
+        category(packageName).level = level;
+        log(LogLevel.INFO, "日志级别设置为: %s (%s)", level == null ? currentLogLevel : level, packageName);
+    }
+    
+    /**
+     * 功能16: 设置队列满时的策略
+     */
+    public void setOverflowPolicy(OverflowPolicy policy) {
+        this.overflowPolicy = policy;
+    }
+    
+    /**
+     * 功能17: 设置队列满时的策略，DROP_BELOW_LEVEL 时低于 keepLevel 的日志被丢弃
+     */
+    public void setOverflowPolicy(OverflowPolicy policy, LogLevel keepLevel) {
+        this.overflowKeepLevel = keepLevel;
+        this.overflowPolicy = policy;
+    }
+    
+    /**
+     * 功能19: 设置刷新策略
+     */
+    public void setFlushPolicy(FlushPolicy policy) {
+        this.flushPolicy = policy;
+        LockSupport.unpark(writerThread);
+    }
+    
+    /**
+     * 功能20: 设置 SIZE 策略下触发刷新的字符数
+     */
+    public void setFlushSize(int chars) {
+        this.flushSize = chars;
+    }
+    
+    /**
+     * 功能21: 设置 TIME 策略下的刷新间隔(毫秒)
+     */
+    public void setFlushInterval(long millis) {
+        this.flushIntervalNanos = millis * 1_000_000;
+        LockSupport.unpark(writerThread);
+    }
+    
+    /**
+     * 功能22: 设置单个日志文件的大小上限(按编码后的字节数)，0 表示不按大小轮转
+     */
+    public void setRotationSize(long bytes) {
+        this.rotationSize = bytes;
+    }
+    
+    /**
+     * 功能23: 设置日志文件的轮转间隔(毫秒)，0 表示只在日期变化时轮转
+     */
+    public void setRotationInterval(long millis) {
+        this.rotationIntervalMillis = millis;
+    }
+    
+    /**
+     * 功能24: 设置保留的旧日志文件数，0 表示全部保留
+     */
+    public void setMaxRetainedFiles(int count) {
+        this.maxRetainedFiles = count;
+    }
+    
+    /**
+     * 功能25: 设置是否 gzip 压缩轮转出的旧日志
+     */
+    public void setCompressRotatedFiles(boolean compress) {
+        this.compressRotatedFiles = compress;
+    }
+    
+    /**
+     * 功能29: 设置某个键(默认是格式串)每秒最多记录的日志数
+     */
+    public void setRateLimit(String key, int permitsPerSecond) {
+        rateLimiter.setPermits(key, permitsPerSecond);
+    }
+    
+    /**
+     * 功能30: 设置未单独配置的键每秒最多记录的日志数(默认10)
+     */
+    public void setDefaultRateLimit(int permitsPerSecond) {
+        rateLimiter.setDefaultPermits(permitsPerSecond);
     }
     
     // ==================== 查询方法 ====================
@@ -337,7 +877,7 @@ public class CreateLogFile {
      * 功能12: 获取日志总数
      */
     public long getLogCount() {
-        return logCounter.get();
+        return logQueue.claimedCount();
     }
     
     /**
@@ -347,16 +887,52 @@ public class CreateLogFile {
         return logQueue.remainingCapacity();
     }
     
+    /**
+     * 功能36: 获取队列中等待写入的日志数(队列深度)
+     */
+    public int getQueueSize() {
+        return logQueue.size();
+    }
+    
+    /**
+     * 功能37: 获取队列容量
+     */
+    public int getQueueCapacity() {
+        return logQueue.capacity();
+    }
+    
+    /**
+     * 功能18: 获取因队列已满被丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return droppedCounter.sum();
+    }
+    
+    /**
+     * 功能31: 获取被限流和抽样抑制的日志数
+     */
+    public long getSuppressedCount() {
+        return rateLimiter.suppressedTotal();
+    }
+    
     // ==================== 管理方法 ====================
     
     /**
      * 功能14: 立即刷新缓冲区
      */
-    public synchronized void flush() {
-        try {
-            writer.flush();
-        } catch (IOException e) {
-            System.err.println("刷新缓冲区失败: " + e.getMessage());
+    public void flush() {
+        Thread thread = writerThread;
+        if (thread == null || !thread.isAlive() || thread == Thread.currentThread()) {
+            flushWriter();
+            return;
+        }
+        // 请求写入线程取完调用前记录的日志后刷新，最多等待 FLUSH_WAIT_NANOS
+        long target = logQueue.claimedCount();
+        flushTarget.accumulateAndGet(target, Math::max);
+        LockSupport.unpark(thread);
+        long deadline = System.nanoTime() + FLUSH_WAIT_NANOS;
+        while (flushedPosition < target && thread.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
         }
     }
     
@@ -364,7 +940,15 @@ public class CreateLogFile {
      * 功能15: 关闭日志系统
      */
     public void shutdown() {
+        // 还没来得及汇总的被抑制日志
+        for (LogRateLimiter.Limit limit : rateLimiter.limits()) {
+            long suppressed = limit.drainSuppressed();
+            if (suppressed > 0) {
+                enqueue(limit.level(), null, SUPPRESSED_FORMAT, new Object[]{suppressed, limit.key});
+            }
+        }
         running = false;
+        LockSupport.unpark(writerThread);
         try {
             writerThread.join(5000);  // 等待写入线程结束
         } catch (InterruptedException e) {
@@ -372,14 +956,107 @@ public class CreateLogFile {
         }
         
         flush();
+        if (sink != null) {
+            writeToFile("========== 日志会话结束 ==========");
+            writeToFile("总计写入日志: " + logQueue.claimedCount() + " 条");
+            long dropped = droppedCounter.sum();
+            if (dropped > 0) {
+                writeToFile("队列已满丢弃日志: " + dropped + " 条");
+            }
+            closeSink();
+        }
+        
+        // 等待已轮转文件压缩完成
+        compressor.shutdown();
         try {
-            if (writer != null) {
-                writeToFile("========== 日志会话结束 ==========");
-                writeToFile("总计写入日志: " + logCounter.get() + " 条");
-                writer.close();
+            compressor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // ==================== 分类日志 ====================
+    
+    /**
+     * 功能35: 获取调用类所在包的分类日志，可以保存在静态字段中
+     */
+    public static Category category(Class<?> owner) {
+        return category(owner.getPackageName());
+    }
+    
+    public static Category category(String packageName) {
+        Category category = categories.get(packageName);
+        return category != null ? category : categories.computeIfAbsent(packageName, Category::new);
+    }
+    
+    /**
+     * 按包区分级别的日志入口，方法与 CreateLogFile 相同
+     */
+    public static final class Category {
+        private final String packageName;
+        private volatile LogLevel level;  // null 时使用全局级别
+        
+        private Category(String packageName) {
+            this.packageName = packageName;
+        }
+        
+        public String getPackageName() {
+            return packageName;
+        }
+        
+        public boolean isEnabled(LogLevel level) {
+            LogLevel own = this.level;
+            return level.getLevel() >= (own != null ? own : getInstance().currentLogLevel).getLevel();
+        }
+        
+        public void log(String message) {
+            log(LogLevel.INFO, message);
+        }
+        
+        public void log(LogLevel level, String message) {
+            if (isEnabled(level)) {
+                getInstance().enqueue(level, message, null, null);
+            }
+        }
+        
+        public void log(String format, Object... args) {
+            log(LogLevel.INFO, format, args);
+        }
+        
+        public void log(LogLevel level, String format, Object... args) {
+            if (isEnabled(level)) {
+                getInstance().enqueue(level, null, format, args);
+            }
+        }
+        
+        public void log(LogLevel level, Supplier<String> message) {
+            if (isEnabled(level)) {
+                getInstance().enqueue(level, message.get(), null, null);
+            }
+        }
+        
+        public void log(String message, Throwable e) {
+            if (isEnabled(LogLevel.ERROR)) {
+                getInstance().enqueue(LogLevel.ERROR, message, null, null, e);
+            }
+        }
+        
+        public void logException(Throwable e) {
+            if (isEnabled(LogLevel.ERROR)) {
+                getInstance().enqueue(LogLevel.ERROR, null, null, null, e);
+            }
+        }
+        
+        public void logLimited(LogLevel level, String format, Object... args) {
+            if (isEnabled(level)) {
+                getInstance().limited(format, level, format, args);
+            }
+        }
+        
+        public void logSampled(double rate, LogLevel level, String format, Object... args) {
+            if (isEnabled(level)) {
+                getInstance().sampled(rate, level, format, args);
             }
-        } catch (IOException e) {
-            System.err.println("关闭日志文件失败: " + e.getMessage());
         }
     }
     
@@ -0,0 +1,338 @@
+package Simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/*
+增量存档(Incremental / delta save-games)
+
+存档由两部分组成：
+  基础存档 <name>          WorldSnapshot 全量格式
+  增量日志 <name>.delta    只追加，每条记录 = 长度 | 世界状态 + 上次存档后变化的市民 | CRC32
+每次 checkpoint 只写脏市民并清除脏标记；读取时先读基础存档再按顺序重放增量日志。
+增量日志超过 compactThresholdBytes 后转为 <name>.delta.compacting，由后台线程合并进新的基础存档，
+Tick线程继续向新的增量日志追加，不会被全量重写阻塞。合并失败时待合并文件保留，
+下一次合并时把新的增量日志追加到它后面一起合并，不会因为一次失败而停止合并。
+记录写入后由后台线程 force 到磁盘，Tick线程不等待刷盘；关闭或切换增量日志前等待刷盘完成。
+记录中保存的是市民的完整状态而不是差值，合并中途崩溃后重复重放也不会出错。
+ */
+public class DeltaSaveLog {
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(DeltaSaveLog.class);
+    private static final long DEFAULT_COMPACT_THRESHOLD = 64L << 20; // 64MB
+    private static final int WORLD_RECORD_SIZE = 8 + 4 + 8 + 4 + 8 + 4 + 4;
+    private static final CitizenStore.Trait[] TRAITS = CitizenStore.Trait.values();
+    private static final int CITIZEN_FIXED_SIZE = 4 + 1 + TRAITS.length * Float.BYTES + 4;
+
+    // ==================== 成员变量 ====================
+    private final Path basePath;
+    private final Path deltaPath;
+    private final Path compactingPath;
+    private final ExecutorService compactor;
+    private final ExecutorService syncer;
+    private volatile long compactThresholdBytes = DEFAULT_COMPACT_THRESHOLD;
+    private Future<?> compaction;
+    private Future<?> pendingSync;
+    private FileChannel deltaChannel;
+
+    public DeltaSaveLog(Path basePath) {
+        this.basePath = basePath;
+        this.deltaPath = basePath.resolveSibling(basePath.getFileName() + ".delta");
+        this.compactingPath = basePath.resolveSibling(basePath.getFileName() + ".delta.compacting");
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "SaveCompactor-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "SaveSync-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setCompactThresholdBytes(long compactThresholdBytes) {
+        this.compactThresholdBytes = compactThresholdBytes;
+    }
+
+    public boolean exists() {
+        return Files.exists(basePath);
+    }
+
+    // ==================== 存档 ====================
+
+    /**
+     * 写入一个检查点：没有基础存档时写全量存档，否则只追加脏市民；完成后清除脏标记。
+     * 必须在Tick线程(或模拟停止时)调用，返回写入的市民数量
+     */
+    public synchronized int checkpoint(WorldSnapshot world, CitizenStore store) throws IOException {
+        if (!Files.exists(basePath) && !isCompacting()) {
+            return writeBase(world, store);
+        }
+
+        int dirtyCount = store.dirtyCount();
+        long recordSize = WORLD_RECORD_SIZE;
+        for (int id = store.nextDirty(0); id >= 0; id = store.nextDirty(id + 1)) {
+            recordSize += CITIZEN_FIXED_SIZE + utf8Length(store.getName(id));
+        }
+        if (recordSize > Integer.MAX_VALUE - 8) {
+            // 变化太多，增量记录没有意义，直接写全量存档
+            return writeBase(world, store);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate((int) recordSize + 8).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt((int) recordSize);
+        record.putLong(world.getTickCount()).putInt(world.getCurrentSeason()).putLong(world.getSeasonTick())
+              .putInt(world.getCityAttractiveness()).putLong(world.getWorldSeed())
+              .putInt(store.size()).putInt(dirtyCount);
+        for (int id = store.nextDirty(0); id >= 0; id = store.nextDirty(id + 1)) {
+            String name = store.getName(id);
+            byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            record.putInt(id).put(store.getGender(id)).putInt(bytes.length).put(bytes);
+            for (CitizenStore.Trait trait : TRAITS) {
+                record.putFloat(store.get(trait, id));
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, (int) recordSize);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        FileChannel channel = openDelta();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        requestSync(channel);
+        store.clearDirty();
+
+        if (channel.size() >= compactThresholdBytes && !isCompacting()) {
+            startCompaction();
+        }
+        return dirtyCount;
+    }
+
+    // 写入全量基础存档：旧的增量日志和合并失败留下的待合并文件都已包含在内，先删除，
+    // 否则读取时会被当作中断的合并重放到新的基础存档上
+    private int writeBase(WorldSnapshot world, CitizenStore store) throws IOException {
+        closeDelta();
+        awaitCompaction();
+        Files.deleteIfExists(deltaPath);
+        Files.deleteIfExists(compactingPath);
+        WorldSnapshot.write(basePath, world, store);
+        store.clearDirty();
+        return store.size();
+    }
+
+    private static int utf8Length(String name) {
+        return name == null ? 0 : name.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private FileChannel openDelta() throws IOException {
+        if (deltaChannel == null) {
+            deltaChannel = FileChannel.open(deltaPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return deltaChannel;
+    }
+
+    private void closeDelta() throws IOException {
+        if (deltaChannel != null) {
+            awaitSync();
+            deltaChannel.close();
+            deltaChannel = null;
+        }
+    }
+
+    // 在后台线程把已写入的记录刷到磁盘
+    private void requestSync(FileChannel channel) {
+        pendingSync = syncer.submit(() -> {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("FileError(3):" + e.getMessage());
+                LOG.log("[DeltaSaveLog]Failed to sync " + deltaPath, e);
+            }
+        });
+    }
+
+    /**
+     * 等待已写入的增量记录刷到磁盘
+     */
+    public synchronized void awaitSync() {
+        Future<?> current = pendingSync;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.log("[DeltaSaveLog]Sync failed", e);
+        }
+    }
+
+    // ==================== 后台合并 ====================
+
+    private boolean isCompacting() {
+        return compaction != null && !compaction.isDone();
+    }
+
+    // 当前增量日志转为待合并文件，后续记录写入新的增量日志；
+    // 上次合并失败留下的待合并文件不能被覆盖，把当前增量日志按顺序追加到它后面
+    private void startCompaction() throws IOException {
+        closeDelta();
+        if (Files.exists(compactingPath)) {
+            try (FileChannel source = FileChannel.open(deltaPath, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(compactingPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = 0;
+                long size = source.size();
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+                target.force(false);
+            }
+            Files.delete(deltaPath);
+            LOG.log(CreateLogFile.LogLevel.WARN, "[DeltaSaveLog]Retrying failed compaction of %s together with new deltas", basePath);
+        } else {
+            Files.move(deltaPath, compactingPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        compaction = compactor.submit(() -> {
+            try {
+                long start = System.nanoTime();
+                CitizenStore merged = new CitizenStore();
+                WorldSnapshot world = WorldSnapshot.read(basePath, merged);
+                world = replay(compactingPath, merged, world);
+                WorldSnapshot.write(basePath, world, merged);
+                Files.deleteIfExists(compactingPath);
+                LOG.log("[DeltaSaveLog]Compacted %s in %d ms",
+                    basePath, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                LOG.log("[DeltaSaveLog]Compaction failed, deltas kept for the next compaction", e);
+            }
+        });
+    }
+
+    /**
+     * 等待正在进行的后台合并完成
+     */
+    public void awaitCompaction() {
+        Future<?> current = compaction;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.log("[DeltaSaveLog]Compaction failed", e);
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 读取基础存档并重放全部增量记录，市民写入 store，返回最新的世界状态
+     */
+    public synchronized WorldSnapshot load(CitizenStore store) throws IOException {
+        awaitCompaction();
+        closeDelta();
+        WorldSnapshot world = WorldSnapshot.read(basePath, store);
+        boolean interrupted = Files.exists(compactingPath);
+        if (interrupted) {
+            world = replay(compactingPath, store, world);
+        }
+        if (Files.exists(deltaPath)) {
+            world = replay(deltaPath, store, world);
+        }
+        if (interrupted) {
+            // 上次合并没有完成，直接用当前结果重写基础存档，避免待合并文件被下一次合并覆盖
+            WorldSnapshot.write(basePath, world, store);
+            Files.deleteIfExists(deltaPath);
+            Files.deleteIfExists(compactingPath);
+        }
+        store.clearDirty();
+        return world;
+    }
+
+    // 按顺序重放增量记录，遇到不完整或校验失败的记录(写到一半崩溃)时停止
+    private static WorldSnapshot replay(Path path, CitizenStore store, WorldSnapshot world) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            while (true) {
+                lengthBuffer.clear();
+                if (!readFully(channel, lengthBuffer)) {
+                    break;
+                }
+                int length = lengthBuffer.flip().getInt();
+                if (length < WORLD_RECORD_SIZE || length > channel.size() - channel.position() - 4) {
+                    LOG.log(CreateLogFile.LogLevel.WARN, "[DeltaSaveLog]Truncated record in %s", path);
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(length + 4).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, record);
+                crc.reset();
+                crc.update(record.array(), 0, length);
+                if ((int) crc.getValue() != record.getInt(length)) {
+                    LOG.log(CreateLogFile.LogLevel.WARN, "[DeltaSaveLog]Corrupt record in %s", path);
+                    break;
+                }
+                record.flip();
+                world = new WorldSnapshot(record.getLong(), record.getInt(), record.getLong(), record.getInt(), record.getLong());
+                int size = record.getInt();
+                int dirtyCount = record.getInt();
+                for (int i = 0; i < dirtyCount; i++) {
+                    int id = record.getInt();
+                    byte gender = record.get();
+                    int nameLength = record.getInt();
+                    String name = new String(record.array(), record.position(), nameLength, StandardCharsets.UTF_8);
+                    record.position(record.position() + nameLength);
+                    store.put(id, name, gender);
+                    for (CitizenStore.Trait trait : TRAITS) {
+                        store.set(trait, id, record.getFloat());
+                    }
+                }
+                if (store.size() < size) {
+                    store.allocate(size - store.size());
+                }
+            }
+        }
+        return world;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 关闭增量日志并等待后台合并结束
+     */
+    public synchronized void close() {
+        awaitCompaction();
+        compactor.shutdown();
+        try {
+            closeDelta();
+        } catch (IOException e) {
+            System.err.println("关闭增量存档失败: " + e.getMessage());
+        }
+        syncer.shutdown();
+    }
+}
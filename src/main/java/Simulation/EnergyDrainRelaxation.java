@@ -0,0 +1,92 @@
+package Simulation;
+
+/*
+能量消耗回归(Energy drain relaxation)
+
+energyDrain 按指数规律回归到由人格差距决定的平衡值：
+  平衡值 eq = 3 × 平均|naturalSelf - adaptedSelf|(与 CitizenGenerator 生成时的关系相同，限制在0~10)
+  逐Tick   e' = eq + (e - eq) × exp(-1/τ)
+  解析解   e(t + n) = eq + (e(t) - eq) × exp(-n/τ)
+两种方式使用同一个衰减系数，跳跃模式下用解析解一次推进任意多个Tick。
+逐Tick更新会逐次舍入到 float，τ 为一天时三天后与解析解相差约0.02分。
+ */
+public class EnergyDrainRelaxation implements ContinuousCitizenUpdater {
+    // ==================== 常量定义 ====================
+    public static final long DEFAULT_TIME_CONSTANT = WorldCalendar.TICKS_PER_DAY; // τ(Tick数)
+    private static final int NATURAL = CitizenStore.Trait.NATURAL_DOMINANCE.ordinal();
+    private static final int ADAPTED = CitizenStore.Trait.ADAPTED_DOMINANCE.ordinal();
+    private static final int DIMENSIONS = 5;
+    private static final CitizenStore.Trait[] TRAITS = CitizenStore.Trait.values();
+    private static final CitizenStore.Trait[] WRITTEN = {CitizenStore.Trait.ENERGY_DRAIN};
+
+    // ==================== 成员变量 ====================
+    private final long timeConstant;
+    private final double tickDecay;
+
+    public EnergyDrainRelaxation() {
+        this(DEFAULT_TIME_CONSTANT);
+    }
+
+    public EnergyDrainRelaxation(long timeConstant) {
+        if (timeConstant <= 0) {
+            throw new IllegalArgumentException("timeConstant must be greater than zero, but was " + timeConstant);
+        }
+        this.timeConstant = timeConstant;
+        this.tickDecay = Math.exp(-1.0 / timeConstant);
+    }
+
+    // ==================== 更新方法 ====================
+
+    @Override
+    public void update(CitizenStore store, int from, int to, long tick) {
+        relax(store, from, to, tickDecay);
+    }
+
+    @Override
+    public CitizenStore.Trait[] writtenTraits() {
+        return WRITTEN;
+    }
+
+    @Override
+    public void advance(CitizenStore store, int from, int to, long fromTick, long toTick) {
+        relax(store, from, to, Math.exp(-(double) (toTick - fromTick) / timeConstant));
+    }
+
+    private static void relax(CitizenStore store, int from, int to, double decay) {
+        float[][] natural = new float[DIMENSIONS][];
+        float[][] adapted = new float[DIMENSIONS][];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            natural[d] = store.column(TRAITS[NATURAL + d]);
+            adapted[d] = store.column(TRAITS[ADAPTED + d]);
+        }
+        float[] current = store.column(CitizenStore.Trait.ENERGY_DRAIN);
+        float[] next = store.nextColumn(CitizenStore.Trait.ENERGY_DRAIN);
+        for (int i = from; i < to; i++) {
+            double gap = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                gap += Math.abs(natural[d][i] - adapted[d][i]);
+            }
+            double eq = toEquilibrium(gap);
+            next[i] = (float) (eq + (current[i] - eq) * decay);
+        }
+    }
+
+    /**
+     * 市民 id 的 energyDrain 平衡值
+     */
+    public static double equilibrium(CitizenStore store, int id) {
+        double gap = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            gap += Math.abs(store.get(TRAITS[NATURAL + d], id) - store.get(TRAITS[ADAPTED + d], id));
+        }
+        return toEquilibrium(gap);
+    }
+
+    private static double toEquilibrium(double gapSum) {
+        return Math.min(10, gapSum / DIMENSIONS * 3);
+    }
+
+    public long getTimeConstant() {
+        return timeConstant;
+    }
+}
@@ -0,0 +1,392 @@
+package Simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+二进制事件日志(Binary structured event journal)
+
+与文本日志并行的定长记录，供运行结束后分析(每个市民的决策、季节变化、Tick状态等)。
+文件布局(小端序)：
+  头部   magic "FTEJ" | version | recordSize | 保留
+  记录   tick(long) | citizenId(int，世界事件为 -1) | type(int) | value(double) | extra(long)，共32字节
+record() 只写入本日志自己的环形缓冲(JournalRingBuffer)，编码和写盘都在专用的写入线程中完成，
+与文本日志的队列和溢出策略无关；缓冲已满时 record() 等待而不丢弃记录。
+写入线程取空缓冲后即把已编码的记录交给操作系统，flush() 等待调用前的记录写出。
+同一路径再次打开时追加，崩溃留下的半条记录会被截掉。
+
+查询：java Simulation.EventJournal <文件> [--type 类型] [--citizen ID] [--from Tick] [--to Tick] [--limit N] [--summary]
+ */
+public class EventJournal implements Closeable {
+    // ==================== 常量定义 ====================
+    public static final int MAGIC = 0x4A455446; // "FTEJ"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 32;
+    public static final int WORLD = -1;          // 不属于某个市民的事件
+    private static final int BUFFER_SIZE = RECORD_SIZE * 2048;
+    private static final int RING_CAPACITY = 1 << 16;         // 环形缓冲容量(记录数)，必须是2的幂
+    private static final int BATCH_SIZE = 2048;
+    private static final long IDLE_PARK_NANOS = 1_000_000_000L;
+    private static final long FLUSH_WAIT_NANOS = 5_000_000_000L;
+    private static final long FLUSH_POLL_NANOS = 100_000;
+    private static final String USAGE = "用法: EventJournal <文件> [--type 类型] [--citizen ID] [--from Tick] [--to Tick] [--limit N] [--summary]";
+
+    // ==================== 事件类型 ====================
+    public enum EventType {
+        TICK_STATUS(1),       // value = 速度倍数, extra = 季节索引
+        SEASON_CHANGE(2),     // value = 城市吸引力, extra = 新季节索引
+        CHECKPOINT(3),        // value = 写入的市民数, extra = 耗时(微秒)
+        CITIZEN_DECISION(4);  // value/extra 由市民更新逻辑定义
+
+        private final int code;
+        EventType(int code) { this.code = code; }
+        public int getCode() { return code; }
+
+        public static EventType of(int code) {
+            for (EventType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    // ==================== 成员变量 ====================
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final JournalRingBuffer ring = new JournalRingBuffer(RING_CAPACITY);
+    private final Thread writerThread;
+    private volatile boolean writerParked = false;
+    private volatile long writtenPosition = 0;   // 已交给操作系统的记录数
+    private volatile boolean closed = false;
+
+    private EventJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+        this.writerThread = new Thread(this::runWriter, "EventJournal-Thread");
+        writerThread.setDaemon(true);
+    }
+
+    /**
+     * 打开(或创建)事件日志，新记录追加到末尾
+     */
+    public static EventJournal open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+                channel.truncate(0);
+                while (header.hasRemaining()) {
+                    channel.write(header, HEADER_SIZE - header.remaining());
+                }
+                size = HEADER_SIZE;
+            } else {
+                readHeader(channel, path);
+                long complete = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+                if (complete != size) {
+                    channel.truncate(complete);
+                    size = complete;
+                }
+            }
+            channel.position(size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        EventJournal journal = new EventJournal(path, channel);
+        journal.writerThread.start();
+        return journal;
+    }
+
+    private static void readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Event journal header truncated: " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a FunTamyCity event journal: " + path);
+        }
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException("Unsupported event journal version " + version + " (record size " + recordSize + ")");
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // ==================== 记录(任意线程) ====================
+
+    /**
+     * 记录一个事件，调用线程只写入环形缓冲的一个槽位，不分配对象
+     */
+    public void record(long tick, int citizenId, EventType type, double value, long extra) {
+        record(tick, citizenId, type.code, value, extra);
+    }
+
+    public void record(long tick, int citizenId, int type, double value, long extra) {
+        if (!closed && ring.offer(tick, citizenId, type, value, extra) && writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * 等待调用前记录的事件交给操作系统，最多等待 FLUSH_WAIT_NANOS
+     */
+    public void flush() {
+        long target = ring.claimedCount();
+        LockSupport.unpark(writerThread);
+        long deadline = System.nanoTime() + FLUSH_WAIT_NANOS;
+        while (writtenPosition < target && writerThread.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
+        }
+    }
+
+    // ==================== 写入(写入线程) ====================
+
+    // 批量取出记录编码到缓冲，缓冲满时写出；取空后写出剩余部分并挂起，直到生产者唤醒
+    private void runWriter() {
+        JournalRingBuffer.RecordHandler encode = this::encode;
+        while (!closed || ring.hasPublished()) {
+            if (ring.drain(encode, BATCH_SIZE) > 0) {
+                continue;
+            }
+            writeBuffer();
+            writtenPosition = ring.consumedCount();
+            writerParked = true;
+            if (!closed && !ring.hasPublished()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+        writeBuffer();
+        writtenPosition = ring.consumedCount();
+    }
+
+    private void encode(long tick, int citizenId, int type, double value, long extra) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+        buffer.putLong(tick).putInt(citizenId).putInt(type).putDouble(value).putLong(extra);
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("写入事件日志失败: " + e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 写出已记录的事件并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        ring.close();
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(FLUSH_WAIT_NANOS / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 顺序读取事件日志：while (reader.next()) { reader.getTick() ... }
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long tick;
+        private int citizenId;
+        private int type;
+        private double value;
+        private long extra;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                readHeader(channel, path);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            channel.position(HEADER_SIZE);
+            buffer.flip();
+        }
+
+        /**
+         * 读取下一条记录，没有完整记录时返回 false
+         */
+        public boolean next() throws IOException {
+            if (buffer.remaining() < RECORD_SIZE) {
+                buffer.compact();
+                while (buffer.position() < RECORD_SIZE && channel.read(buffer) > 0) {
+                    // 继续读取直到至少有一条完整记录
+                }
+                buffer.flip();
+                if (buffer.remaining() < RECORD_SIZE) {
+                    return false;
+                }
+            }
+            tick = buffer.getLong();
+            citizenId = buffer.getInt();
+            type = buffer.getInt();
+            value = buffer.getDouble();
+            extra = buffer.getLong();
+            return true;
+        }
+
+        public long getTick() { return tick; }
+        public int getCitizenId() { return citizenId; }
+        public int getType() { return type; }
+        public double getValue() { return value; }
+        public long getExtra() { return extra; }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // ==================== 查询工具 ====================
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        Integer typeFilter = null;
+        Integer citizenFilter = null;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        long limit = Long.MAX_VALUE;
+        boolean summary = false;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--type":
+                        String name = value(args, ++i);
+                        EventType known = null;
+                        for (EventType type : EventType.values()) {
+                            if (type.name().equalsIgnoreCase(name)) {
+                                known = type;
+                            }
+                        }
+                        typeFilter = known != null ? known.code : (int) parseLong(args, i, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                        break;
+                    case "--citizen": citizenFilter = (int) parseLong(args, ++i, Integer.MIN_VALUE, Integer.MAX_VALUE); break;
+                    case "--from": from = parseLong(args, ++i, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                    case "--to": to = parseLong(args, ++i, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                    case "--limit": limit = parseLong(args, ++i, 0, Long.MAX_VALUE); break;
+                    case "--summary": summary = true; break;
+                    default:
+                        throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[错误] " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        // 类型代码 -> {数量, 总和, 最小值, 最大值}
+        Map<Integer, double[]> stats = new TreeMap<>();
+        long printed = 0;
+        try (Reader reader = new Reader(Paths.get(args[0]))) {
+            while (reader.next()) {
+                if ((typeFilter != null && reader.getType() != typeFilter)
+                        || (citizenFilter != null && reader.getCitizenId() != citizenFilter)
+                        || reader.getTick() < from || reader.getTick() > to) {
+                    continue;
+                }
+                if (summary) {
+                    double[] s = stats.computeIfAbsent(reader.getType(),
+                        k -> new double[]{0, 0, Double.MAX_VALUE, -Double.MAX_VALUE});
+                    s[0]++;
+                    s[1] += reader.getValue();
+                    s[2] = Math.min(s[2], reader.getValue());
+                    s[3] = Math.max(s[3], reader.getValue());
+                } else {
+                    if (printed++ >= limit) {
+                        break;
+                    }
+                    System.out.printf("%d\t%d\t%s\t%s\t%d%n", reader.getTick(), reader.getCitizenId(),
+                        typeName(reader.getType()), reader.getValue(), reader.getExtra());
+                }
+            }
+        }
+        for (Map.Entry<Integer, double[]> entry : stats.entrySet()) {
+            double[] s = entry.getValue();
+            System.out.printf("%-18s 数量: %d | 平均: %.4f | 最小: %s | 最大: %s%n", typeName(entry.getKey()),
+                (long) s[0], s[1] / s[0], s[2], s[3]);
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " 缺少参数值");
+        }
+        return args[index];
+    }
+
+    // 格式错误或超出 [min, max] 时抛出 IllegalArgumentException
+    private static long parseLong(String[] args, int index, long min, long max) {
+        String value = value(args, index);
+        long result;
+        try {
+            result = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(args[index - 1] + " 必须是整数: " + value);
+        }
+        if (result < min || result > max) {
+            throw new IllegalArgumentException(args[index - 1] + " 超出范围 [" + min + ", " + max + "]: " + value);
+        }
+        return result;
+    }
+
+    private static String typeName(int code) {
+        EventType type = EventType.of(code);
+        return type != null ? type.name() : String.valueOf(code);
+    }
+}
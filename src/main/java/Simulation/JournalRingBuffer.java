@@ -0,0 +1,145 @@
+package Simulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+事件日志专用的环形缓冲(Lock-free MPSC ring buffer for journal records)
+
+与 LogRingBuffer 相同的序号协议，但记录字段直接存放在按槽位索引的基本类型数组中，
+不与文本日志共用槽位，文本日志的突发和溢出策略不会丢弃或阻塞事件记录。
+缓冲已满时生产者等待写入线程腾出空间(事件日志不丢记录)，只有 close() 之后才放弃。
+ */
+final class JournalRingBuffer {
+    // ==================== 常量定义 ====================
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    // ==================== 成员变量 ====================
+    private final long[] sequences;
+    private final long[] ticks;
+    private final int[] citizenIds;
+    private final int[] types;
+    private final double[] values;
+    private final long[] extras;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private volatile boolean closed = false;
+
+    JournalRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.sequences = new long[capacity];
+        this.ticks = new long[capacity];
+        this.citizenIds = new int[capacity];
+        this.types = new int[capacity];
+        this.values = new double[capacity];
+        this.extras = new long[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    /**
+     * 接收记录的回调(写入线程)
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void accept(long tick, int citizenId, int type, double value, long extra);
+    }
+
+    // ==================== 生产者 ====================
+
+    /**
+     * 写入一条记录，缓冲已满时等待；已关闭或调用线程被中断时放弃并返回 false
+     */
+    boolean offer(long tick, int citizenId, int type, double value, long extra) {
+        long position;
+        for (int tries = 0; (position = tryClaim()) < 0; tries++) {
+            if (closed || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        int index = (int) position & mask;
+        ticks[index] = tick;
+        citizenIds[index] = citizenId;
+        types[index] = type;
+        values[index] = value;
+        extras[index] = extra;
+        SEQUENCE.setVolatile(sequences, index, position + 1);
+        return true;
+    }
+
+    private long tryClaim() {
+        while (true) {
+            long position = tail.get();
+            long difference = (long) SEQUENCE.getAcquire(sequences, (int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1;
+            }
+        }
+    }
+
+    // ==================== 消费者(仅写入线程) ====================
+
+    /**
+     * 批量取出最多 maxRecords 条已发布的记录，返回取出的数量
+     */
+    int drain(RecordHandler handler, int maxRecords) {
+        long position = head;
+        int count = 0;
+        while (count < maxRecords) {
+            int index = (int) position & mask;
+            if ((long) SEQUENCE.getAcquire(sequences, index) != position + 1) {
+                break;
+            }
+            handler.accept(ticks[index], citizenIds[index], types[index], values[index], extras[index]);
+            SEQUENCE.setRelease(sequences, index, position + sequences.length);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * 之后等待空间的生产者放弃写入，已发布的记录仍可取出
+     */
+    void close() {
+        closed = true;
+    }
+
+    boolean hasPublished() {
+        long position = head;
+        return (long) SEQUENCE.getVolatile(sequences, (int) position & mask) == position + 1;
+    }
+
+    // ==================== 查询方法 ====================
+
+    int capacity() {
+        return sequences.length;
+    }
+
+    long claimedCount() {
+        return tail.get();
+    }
+
+    long consumedCount() {
+        return head;
+    }
+}
@@ -0,0 +1,329 @@
+package Simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/*
+拉取式JSON读取器(Streaming pull-style JSON reader)
+
+每次 next() 返回一个记号，调用方按需读取或跳过，不在内存中构建整个文档：
+读取 2GB 的 CitizenData.json 时，内存中只有一个64K的字符缓冲和当前的字符串/数字。
+只支持读取，不做完整的语法校验(org.json 仍用于小文件和写入)。
+ */
+public class JsonPullReader implements Closeable {
+    // ==================== 记号类型 ====================
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    // ==================== 常量定义 ====================
+    private static final int BUFFER_SIZE = 65536;
+    private static final char BYTE_ORDER_MARK = (char) 0xFEFF;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    // 嵌套上下文
+    private static final byte IN_ARRAY = 1;
+    private static final byte IN_OBJECT_NAME = 2;   // 对象中，下一个是键
+    private static final byte IN_OBJECT_VALUE = 3;  // 对象中，下一个是值
+
+    // ==================== 成员变量 ====================
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private byte[] stack = new byte[32];
+    private int depth = 0;
+
+    private final StringBuilder text = new StringBuilder();
+    private double number;
+
+    public JsonPullReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // ==================== 读取方法 ====================
+
+    /**
+     * 读取下一个记号
+     */
+    public Token next() throws IOException {
+        int c = skipSeparators();
+        if (c < 0) {
+            return Token.END_DOCUMENT;
+        }
+        byte context = depth > 0 ? stack[depth - 1] : 0;
+        switch (c) {
+            case '{':
+                afterValue();
+                push(IN_OBJECT_NAME);
+                return Token.BEGIN_OBJECT;
+            case '}':
+                // 只能结束一个已打开、且不在等待值的对象
+                if (context != IN_OBJECT_NAME) {
+                    throw syntaxError("Unexpected '}'");
+                }
+                depth--;
+                return Token.END_OBJECT;
+            case '[':
+                afterValue();
+                push(IN_ARRAY);
+                return Token.BEGIN_ARRAY;
+            case ']':
+                if (context != IN_ARRAY) {
+                    throw syntaxError("Unexpected ']'");
+                }
+                depth--;
+                return Token.END_ARRAY;
+            case '"':
+                readString();
+                if (context == IN_OBJECT_NAME) {
+                    stack[depth - 1] = IN_OBJECT_VALUE;
+                    return Token.NAME;
+                }
+                afterValue();
+                return Token.STRING;
+            case 't':
+                expectLiteral("rue");
+                afterValue();
+                return Token.TRUE;
+            case 'f':
+                expectLiteral("alse");
+                afterValue();
+                return Token.FALSE;
+            case 'n':
+                expectLiteral("ull");
+                afterValue();
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber((char) c);
+                    afterValue();
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * 当前 NAME 或 STRING 记号的文本
+     */
+    public String stringValue() {
+        return text.toString();
+    }
+
+    /**
+     * 当前 NAME 或 STRING 记号的文本(不复制，下一次 next() 后失效)
+     */
+    public CharSequence textValue() {
+        return text;
+    }
+
+    /**
+     * 当前 NUMBER 记号的数值
+     */
+    public double numberValue() {
+        return number;
+    }
+
+    /**
+     * 跳过紧接着的一个值(对象或数组整体跳过)，在读取 NAME 之后调用
+     */
+    public void skipValue() throws IOException {
+        int level = 0;
+        do {
+            Token token = next();
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                level++;
+            } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                level--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of document");
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * 跳过已读取的记号 token 开始的值的剩余部分(token 为 BEGIN_OBJECT/BEGIN_ARRAY 时跳到对应的结束记号)
+     */
+    public void skipRest(Token token) throws IOException {
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+            return;
+        }
+        int level = 1;
+        do {
+            Token next = next();
+            if (next == Token.BEGIN_OBJECT || next == Token.BEGIN_ARRAY) {
+                level++;
+            } else if (next == Token.END_OBJECT || next == Token.END_ARRAY) {
+                level--;
+            } else if (next == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of document");
+            }
+        } while (level > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ==================== 内部方法 ====================
+
+    // 值读完后，所在对象的下一个记号应当是键
+    private void afterValue() {
+        if (depth > 0 && stack[depth - 1] == IN_OBJECT_VALUE) {
+            stack[depth - 1] = IN_OBJECT_NAME;
+        }
+    }
+
+    private void push(byte context) {
+        if (depth == stack.length) {
+            byte[] larger = new byte[stack.length * 2];
+            System.arraycopy(stack, 0, larger, 0, depth);
+            stack = larger;
+        }
+        stack[depth++] = context;
+    }
+
+    // 跳过空白、逗号和冒号(结构由上下文栈保证)
+    private int skipSeparators() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[position++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != ',' && c != ':' && c != BYTE_ORDER_MARK) {
+                return c;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            // 批量复制没有转义的片段
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+            if (position == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case '"': text.append('"'); break;
+                    case '\\': text.append('\\'); break;
+                    case '/': text.append('/'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw syntaxError("Invalid unicode escape");
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    default:
+                        throw syntaxError("Invalid escape '\\" + (char) escaped + "'");
+                }
+            }
+        }
+    }
+
+    // 常见的短小数(如 9.2)直接由整数尾数和10的幂计算，其余交给 Double.parseDouble
+    private void readNumber(char first) throws IOException {
+        text.setLength(0);
+        text.append(first);
+        boolean negative = first == '-';
+        long mantissa = negative ? 0 : first - '0';
+        int digits = negative ? 0 : 1;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean simple = true;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || c == '-') {
+                simple = false;
+            } else {
+                break;
+            }
+            text.append(c);
+            position++;
+        }
+
+        if (simple && digits > 0 && digits <= MAX_FAST_DIGITS) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            number = negative ? -value : value;
+        } else {
+            try {
+                number = Double.parseDouble(text.toString());
+            } catch (NumberFormatException e) {
+                throw syntaxError("Invalid number '" + text + "'");
+            }
+        }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("JSON syntax error: " + message);
+    }
+}
@@ -0,0 +1,34 @@
+package Simulation;
+
+/*
+日志事件槽(Reusable log event slot)
+
+LogRingBuffer 预先分配全部槽位，生产者填写字段后发布，写入线程读取后清空引用，
+槽位本身在整个程序运行期间反复使用，记录一条日志不会分配新的队列节点。
+调用线程只记录时间、级别、线程名和原始参数，时间戳和 String.format 都由写入线程完成。
+ */
+final class LogEvent {
+    // 由 LogRingBuffer 通过 VarHandle 读写，用于生产者与写入线程之间的发布
+    long sequence;
+
+    long timestamp;                 // System.currentTimeMillis()
+    CreateLogFile.LogLevel level;
+    String threadName;
+    String message;                 // 不带格式的日志内容
+    String format;                  // 带格式的日志：由写入线程执行 format(args)
+    Object[] args;
+    Throwable thrown;               // 堆栈由写入线程展开
+
+    LogEvent(long sequence) {
+        this.sequence = sequence;
+    }
+
+    void clear() {
+        level = null;
+        threadName = null;
+        message = null;
+        format = null;
+        args = null;
+        thrown = null;
+    }
+}
@@ -0,0 +1,158 @@
+package Simulation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+按消息键限流(Per-key log rate limiter)
+
+每个键(默认是格式串本身)有一个1秒的固定窗口，窗口内最多放行 permits 条，其余只计数；
+窗口切换时由第一个到达的调用者取走上一窗口的被抑制数量，CreateLogFile 据此写一条汇总；
+之后不再被调用的键由写入线程定期 sweep() 补写汇总，空闲超过 IDLE_NANOS 的键被移除，动态键不会一直占用内存。
+超限后的调用只读一次计数并累加 LongAdder，并行Tick中同一条消息刷屏也不会互相争用。
+ */
+final class LogRateLimiter {
+    // ==================== 常量定义 ====================
+    static final long WINDOW_NANOS = 1_000_000_000L;
+    static final long IDLE_NANOS = 60_000_000_000L;
+    private static final int DEFAULT_PERMITS = 10;
+
+    // ==================== 成员变量 ====================
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> configuredPermits = new ConcurrentHashMap<>();
+    private volatile int defaultPermits = DEFAULT_PERMITS;
+    private final LongAdder suppressedTotal = new LongAdder();
+
+    // ==================== 单个键的窗口 ====================
+    final class Limit {
+        final String key;
+        volatile int permits;
+        private final AtomicLong windowStart;
+        private final AtomicInteger used = new AtomicInteger();
+        private final LongAdder suppressed = new LongAdder();
+        private volatile CreateLogFile.LogLevel level = CreateLogFile.LogLevel.INFO;  // 最近一次被抑制的级别，用于汇总
+
+        Limit(String key, int permits, long now) {
+            this.key = key;
+            this.permits = permits;
+            this.windowStart = new AtomicLong(now);
+        }
+
+        /**
+         * 窗口已过期时开始新窗口，返回上一窗口被抑制的数量(只有一个调用者拿到非0值)
+         */
+        long rollWindow(long now) {
+            long start = windowStart.get();
+            if (now - start < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) {
+                return 0;
+            }
+            used.set(0);
+            return suppressed.sumThenReset();
+        }
+
+        boolean tryAcquire() {
+            int limit = permits;
+            if (used.get() >= limit) {
+                return false;
+            }
+            return used.incrementAndGet() <= limit;
+        }
+
+        void suppress(CreateLogFile.LogLevel level) {
+            if (this.level != level) {
+                this.level = level;
+            }
+            suppressed.increment();
+            suppressedTotal.increment();
+        }
+
+        CreateLogFile.LogLevel level() {
+            return level;
+        }
+
+        /**
+         * 取走尚未汇总的被抑制数量(关闭时调用)
+         */
+        long drainSuppressed() {
+            return suppressed.sumThenReset();
+        }
+    }
+
+    /**
+     * 接收一个键的汇总(被抑制数量大于0)
+     */
+    @FunctionalInterface
+    interface SummaryHandler {
+        void accept(Limit limit, long suppressed);
+    }
+
+    // ==================== 定期清理(写入线程) ====================
+
+    /**
+     * 窗口已结束但没有调用者来取的被抑制数量交给 handler；空闲超过 IDLE_NANOS 且没有待汇总数量的键被移除。
+     * 移除时正好拿到旧 Limit 的调用者仍会正常计数，只是这一次可能不出现在汇总中
+     */
+    void sweep(long now, SummaryHandler handler) {
+        for (Limit limit : limits.values()) {
+            long start = limit.windowStart.get();
+            if (now - start < WINDOW_NANOS) {
+                continue;
+            }
+            if (limit.suppressed.sum() > 0) {
+                long suppressed = limit.rollWindow(now);
+                if (suppressed > 0) {
+                    handler.accept(limit, suppressed);
+                }
+            } else if (now - start >= IDLE_NANOS && limits.remove(limit.key, limit)) {
+                long suppressed = limit.drainSuppressed();
+                if (suppressed > 0) {
+                    handler.accept(limit, suppressed);
+                }
+            }
+        }
+    }
+
+    // ==================== 查询与配置 ====================
+
+    Limit limitFor(String key) {
+        Limit limit = limits.get(key);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(key,
+                k -> new Limit(k, configuredPermits.getOrDefault(k, defaultPermits), System.nanoTime()));
+        }
+        return limit;
+    }
+
+    void setPermits(String key, int permitsPerSecond) {
+        configuredPermits.put(key, permitsPerSecond);
+        Limit limit = limits.get(key);
+        if (limit != null) {
+            limit.permits = permitsPerSecond;
+        }
+    }
+
+    void setDefaultPermits(int permitsPerSecond) {
+        defaultPermits = permitsPerSecond;
+        for (Limit limit : limits.values()) {
+            if (!configuredPermits.containsKey(limit.key)) {
+                limit.permits = permitsPerSecond;
+            }
+        }
+    }
+
+    Collection<Limit> limits() {
+        return limits.values();
+    }
+
+    int size() {
+        return limits.size();
+    }
+
+    long suppressedTotal() {
+        return suppressedTotal.sum();
+    }
+}
@@ -0,0 +1,145 @@
+package Simulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+多生产者单消费者环形缓冲(Lock-free MPSC ring buffer)
+
+容量为2的幂，所有 LogEvent 槽位在构造时分配。每个槽位带一个序号：
+  序号 == 位置          槽位空闲，生产者可以用 CAS 抢占 tail 后写入
+  序号 == 位置 + 1      已发布，写入线程可以读取
+  读取后序号置为 位置 + 容量，留给下一圈的生产者
+生产者之间只竞争 tail 的一次 CAS，不加锁；写入线程只有一个，head 不需要原子操作。
+发布和 hasPublished 使用 volatile 访问，写入线程挂起前的最后一次检查不会错过生产者的唤醒。
+ */
+final class LogRingBuffer {
+    // ==================== 常量定义 ====================
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(LogEvent.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // ==================== 成员变量 ====================
+    private final LogEvent[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    LogRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new LogEvent[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent(i);
+        }
+    }
+
+    // ==================== 生产者 ====================
+
+    /**
+     * 抢占一个空闲槽位，返回其位置；缓冲已满时返回 -1
+     */
+    long tryClaim() {
+        while (true) {
+            long position = tail.get();
+            LogEvent slot = slots[(int) position & mask];
+            long difference = (long) SEQUENCE.getAcquire(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1;
+            }
+            // difference > 0：其他生产者已经抢先，重读 tail
+        }
+    }
+
+    /**
+     * 获取已抢占位置的槽位，填写后必须调用 publish
+     */
+    LogEvent get(long position) {
+        return slots[(int) position & mask];
+    }
+
+    /**
+     * 发布槽位，写入线程随后可见
+     */
+    void publish(long position) {
+        SEQUENCE.setVolatile(slots[(int) position & mask], position + 1);
+    }
+
+    // ==================== 消费者(仅写入线程) ====================
+
+    /**
+     * 批量取出最多 maxEvents 条已发布的事件交给 handler，逐条释放槽位，返回取出的数量
+     */
+    int drain(Consumer<LogEvent> handler, int maxEvents) {
+        long position = head;
+        int count = 0;
+        while (count < maxEvents) {
+            LogEvent slot = slots[(int) position & mask];
+            if ((long) SEQUENCE.getAcquire(slot) != position + 1) {
+                break;
+            }
+            handler.accept(slot);
+            slot.clear();
+            SEQUENCE.setRelease(slot, position + slots.length);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * 是否有已发布未取出的事件(写入线程挂起前检查)
+     */
+    boolean hasPublished() {
+        long position = head;
+        return (long) SEQUENCE.getVolatile(slots[(int) position & mask]) == position + 1;
+    }
+
+    // ==================== 查询方法 ====================
+
+    boolean isEmpty() {
+        return !hasPublished();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    int remainingCapacity() {
+        return slots.length - size();
+    }
+
+    /**
+     * 获取自创建以来被抢占的槽位总数(即接收的事件总数)
+     */
+    long claimedCount() {
+        return tail.get();
+    }
+
+    /**
+     * 获取写入线程已取出的事件总数
+     */
+    long consumedCount() {
+        return head;
+    }
+}
@@ -0,0 +1,42 @@
+package Simulation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/*
+日志输出端(Log sink)
+
+只由日志写入线程调用(以及关闭时的收尾)，实现不需要线程安全。
+  writer   BufferedWriter + FileWriter(默认)
+  channel  UTF-8 编码到预分配的直接缓冲池，FileChannel 聚集写入
+用 -DCreateLogFile.sink=channel 选择。
+ */
+interface LogSink extends Closeable {
+    String SINK_PROPERTY = "CreateLogFile.sink";
+
+    /**
+     * 追加一批已格式化的日志(调用返回后 chars 可以被复用)
+     */
+    void write(StringBuilder chars) throws IOException;
+
+    /**
+     * 把缓冲中的内容交给操作系统
+     */
+    void flush() throws IOException;
+
+    /**
+     * 文件当前的字节数，包括已编码但还在缓冲中的部分(按大小轮转时使用)
+     */
+    long size();
+
+    /**
+     * 按系统属性打开日志文件(追加模式)
+     */
+    static LogSink open(File file) throws IOException {
+        if ("channel".equalsIgnoreCase(System.getProperty(SINK_PROPERTY))) {
+            return new ChannelLogSink(file.toPath());
+        }
+        return new WriterLogSink(file);
+    }
+}
@@ -0,0 +1,204 @@
+package Simulation;
+
+import TimeControl.LatencyHistogram;
+import TimeControl.TickEngine;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+运行指标(Runtime metrics registry)
+
+把一个世界的运行状况集中在一份报告里，用来判断变慢的原因是模拟本身、GC还是日志：
+  Tick      总数、区间内的Tick/秒和跳跃推进的Tick数、Tick耗时分布(p50/p90/p99/p99.9/最大)
+  Systems   每个子系统的累计耗时、占比、平均、p99和最大值(TickEngine.timingReport)
+  Citizens  区间内实际计算的市民数、每秒更新数和跳跃推进覆盖的 市民数 × Tick数
+  Log       日志队列深度、入队数(不含事件日志，它有自己的缓冲)、丢弃数、被限流数(CreateLogFile 为全局共享)
+  GC        区间内的GC次数、耗时及占比，堆使用量
+记录全部在 TickEngine 的Tick线程中完成(数组自增，不分配对象)；报告时才复制快照并计算，
+耗时分布通过 LatencyHistogram.copy() 的版本号校验取得一致的副本，定期写文件的线程不会读到写了一半的直方图；
+"区间"指与上一次报告之间的时间。控制台命令 metrics 查询，startDump 定期追加到文件。
+ */
+public final class MetricsRegistry {
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(MetricsRegistry.class);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+    // ==================== 成员变量 ====================
+    private final World world;
+    private final TickEngine engine;
+    private final CreateLogFile logger = CreateLogFile.getInstance();
+    private Snapshot lastReport;
+    private ScheduledExecutorService dumper;
+    private final Object dumpLock = new Object(); // 写文件与 stopDump 的等待分开加锁
+    private Snapshot lastDump;
+    private Path dumpPath;
+
+    public MetricsRegistry(World world) {
+        this.world = world;
+        this.engine = world.getEngine();
+        this.lastReport = snapshot();
+    }
+
+    // ==================== 快照 ====================
+
+    /**
+     * 某一时刻的累计计数，两次快照相减得到区间值
+     */
+    public final class Snapshot {
+        final long nanos = System.nanoTime();
+        final long ticks = engine.getTickCount();
+        final long skipped = engine.getSkippedTicks();
+        final long citizens = world.getCitizenPhase().getUpdatedCount();
+        final long advanced = world.getCitizenPhase().getAdvancedCount();
+        final long logCount = logger.getLogCount();
+        final long dropped = logger.getDroppedCount();
+        final long suppressed = logger.getSuppressedCount();
+        final LatencyHistogram tickLatency = engine.getTickLatency().copy();
+        final long gcCount;
+        final long gcMillis;
+
+        private Snapshot() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            this.gcCount = count;
+            this.gcMillis = millis;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot();
+    }
+
+    // ==================== 报告 ====================
+
+    /**
+     * 生成报告，区间值相对于上一次调用 report()
+     */
+    public synchronized String report() {
+        Snapshot now = snapshot();
+        String report = report(lastReport, now);
+        lastReport = now;
+        return report;
+    }
+
+    /**
+     * 从现在开始计算 report() 的区间(例如读取存档之后、开始运行之前)
+     */
+    public synchronized void resetWindow() {
+        lastReport = snapshot();
+    }
+
+    /**
+     * 生成 since 到 now 之间的报告
+     */
+    public String report(Snapshot since, Snapshot now) {
+        double seconds = Math.max(1e-9, (now.nanos - since.nanos) / 1e9);
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("=== Metrics [%s] @ tick %d (window %.1f s) ===%n",
+            world.getName(), now.ticks, seconds));
+
+        long ticks = now.ticks - since.ticks;
+        report.append(String.format("Ticks     total %d | window %d | %.1f ticks/s | skipped %d%n",
+            now.ticks, ticks, ticks / seconds, now.skipped - since.skipped));
+
+        LatencyHistogram window = now.tickLatency.copy();
+        window.subtract(since.tickLatency);
+        report.append(String.format("Tick(us)  count %d | mean %.1f", window.getCount(), window.getMean() / 1e3));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            report.append(String.format(" | %s %.1f", PERCENTILE_NAMES[i], window.getValueAtPercentile(PERCENTILES[i]) / 1e3));
+        }
+        report.append(String.format(" | max %.1f%n", now.tickLatency.getMax() / 1e3));
+
+        long citizens = now.citizens - since.citizens;
+        report.append(String.format("Citizens  %d in store | %d updated | %.0f updates/s | %d citizen-ticks skipped%n",
+            world.getCitizenStore().size(), citizens, citizens / seconds, now.advanced - since.advanced));
+
+        report.append("Systems (since start)").append(System.lineSeparator());
+        report.append(engine.timingReport());
+
+        long logs = now.logCount - since.logCount;
+        report.append(String.format("Log       queue %d/%d | %d events (%.0f/s) | dropped %d (+%d) | suppressed %d (+%d)%n",
+            logger.getQueueSize(), logger.getQueueCapacity(), logs, logs / seconds,
+            now.dropped, now.dropped - since.dropped, now.suppressed, now.suppressed - since.suppressed));
+
+        long gcMillis = now.gcMillis - since.gcMillis;
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        report.append(String.format("GC        %d collections | %d ms (%.1f%% of window) | heap %d/%d MB%n",
+            now.gcCount - since.gcCount, gcMillis, gcMillis / 10.0 / seconds,
+            heap.getUsed() >> 20, Math.max(heap.getMax(), heap.getCommitted()) >> 20));
+        return report.toString();
+    }
+
+    // ==================== 定期写入文件 ====================
+
+    /**
+     * 每 intervalMillis 毫秒把报告追加到文件(区间相对于上一次写入，与 report() 互不影响)
+     */
+    public synchronized void startDump(Path path, long intervalMillis) {
+        stopDump();
+        synchronized (dumpLock) {
+            this.dumpPath = path;
+            this.lastDump = snapshot();
+        }
+        this.dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MetricsDump-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(this::dump, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        LOG.log("[Metrics]Dumping metrics of %s to %s every %d ms", world.getName(), path, intervalMillis);
+    }
+
+    /**
+     * 停止定期写入，并写入最后一份报告
+     */
+    public synchronized void stopDump() {
+        if (dumper == null) {
+            return;
+        }
+        dumper.shutdown();
+        try {
+            dumper.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dumper = null;
+        dump();
+    }
+
+    private void dump() {
+        synchronized (dumpLock) {
+            Snapshot now = snapshot();
+            String header = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + System.lineSeparator();
+            try {
+                Path parent = dumpPath.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(dumpPath, header + report(lastDump, now) + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("FileError(7):" + e.getMessage());
+                LOG.log("[Metrics]Failed to write metrics to " + dumpPath, e);
+            }
+            lastDump = now;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package Simulation;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/*
+预编译的加权姓名抽样器(Alias-method name sampler)
+
+NameRepository.json 的结构：region -> country -> 类别(firstNames) -> 分桶("A-1"...) -> NameList + weight(s)
+载入时把同一 region/country/类别 下的所有分桶展平成一张 Vose 别名表，之后每次抽样 O(1)，
+不再遍历嵌套的 JSON。
+分桶中的权重可以是数组("weight"或"weights")，也可以是对所有名字通用的单个数值。
+ */
+public class NameSampler {
+    // ==================== 成员变量 ====================
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    private NameSampler() {
+    }
+
+    // ==================== 载入方法 ====================
+
+    /**
+     * 从文件载入 NameRepository.json
+     */
+    public static NameSampler load(String filePath) throws IOException, JSONException {
+        String content = new String(Files.readAllBytes(Paths.get(filePath)), StandardCharsets.UTF_8);
+        return fromJson(new JSONObject(content));
+    }
+
+    /**
+     * 从 NameRepository.json 的根对象构建所有别名表
+     */
+    public static NameSampler fromJson(JSONObject repository) throws JSONException {
+        NameSampler sampler = new NameSampler();
+        JSONObject regions = repository.getJSONObject("region");
+        for (String region : keysOf(regions)) {
+            JSONObject countries = regions.getJSONObject(region);
+            for (String country : keysOf(countries)) {
+                JSONObject categories = countries.getJSONObject(country);
+                for (String category : keysOf(categories)) {
+                    Table table = buildTable(categories.getJSONObject(category));
+                    if (table != null) {
+                        sampler.tables.put(key(region, country, category), table);
+                    }
+                }
+            }
+        }
+        return sampler;
+    }
+
+    // 展平所有分桶的名字和权重
+    private static Table buildTable(JSONObject buckets) throws JSONException {
+        List<String> names = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String bucketName : keysOf(buckets)) {
+            JSONObject bucket = buckets.getJSONObject(bucketName);
+            JSONArray nameList = bucket.optJSONArray("NameList");
+            if (nameList == null) {
+                continue;
+            }
+            Object weight = bucket.has("weight") ? bucket.get("weight") : bucket.opt("weights");
+            JSONArray weightList = weight instanceof JSONArray ? (JSONArray) weight : null;
+            double scalar = weight instanceof Number ? ((Number) weight).doubleValue() : 0;
+
+            // 权重数组比名字短时，缺失的权重取该分桶的最小权重
+            double fallback = scalar;
+            if (weightList != null) {
+                fallback = Double.MAX_VALUE;
+                for (int i = 0; i < weightList.length(); i++) {
+                    fallback = Math.min(fallback, weightList.optDouble(i, Double.MAX_VALUE));
+                }
+                if (fallback == Double.MAX_VALUE) {
+                    fallback = 0;
+                }
+            }
+            for (int i = 0; i < nameList.length(); i++) {
+                names.add(nameList.getString(i));
+                double w = weightList != null && i < weightList.length() ? weightList.optDouble(i, fallback) : fallback;
+                weights.add(w > 0 ? w : 0);
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        double[] w = new double[weights.size()];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = weights.get(i);
+        }
+        return new Table(names.toArray(new String[0]), w);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> keysOf(JSONObject object) {
+        List<String> keys = new ArrayList<>();
+        Iterator<String> it = object.keys();
+        while (it.hasNext()) {
+            keys.add(it.next());
+        }
+        // org.json 不保证键的顺序，排序后别名表的构建才可复现
+        Collections.sort(keys);
+        return keys;
+    }
+
+    private static String key(String region, String country, String category) {
+        return region + "/" + country + "/" + category;
+    }
+
+    // ==================== 查询方法 ====================
+
+    /**
+     * 获取 region/country/category 对应的别名表，不存在时返回 null
+     */
+    public Table table(String region, String country, String category) {
+        return tables.get(key(region, country, category));
+    }
+
+    /**
+     * 获取所有已编译的表名(region/country/category)
+     */
+    public Set<String> tableKeys() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    // ==================== 别名表 ====================
+    public static final class Table {
+        private final String[] names;
+        private final double[] probability;
+        private final int[] alias;
+
+        Table(String[] names, double[] weights) {
+            this.names = names;
+            int n = names.length;
+            this.probability = new double[n];
+            this.alias = new int[n];
+
+            double total = 0;
+            for (double w : weights) {
+                total += w;
+            }
+            // 全部权重为0时退化为均匀分布
+            double[] scaled = new double[n];
+            for (int i = 0; i < n; i++) {
+                scaled[i] = total > 0 ? weights[i] * n / total : 1.0;
+            }
+
+            // Vose 算法：小于1的放入 small，其余放入 large，逐对配平
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // 剩余项由于浮点误差应为1
+            while (largeCount > 0) {
+                int i = large[--largeCount];
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+            while (smallCount > 0) {
+                int i = small[--smallCount];
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+        }
+
+        /**
+         * 用一个 [0, 1) 的均匀随机数抽取名字下标，O(1)
+         */
+        public int sampleIndex(double uniform) {
+            double x = uniform * names.length;
+            int column = (int) x;
+            if (column >= names.length) {
+                column = names.length - 1;
+            }
+            return (x - column) < probability[column] ? column : alias[column];
+        }
+
+        public String sample(double uniform) {
+            return names[sampleIndex(uniform)];
+        }
+
+        public String sample(SplittableRandom random) {
+            return sample(random.nextDouble());
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public int size() {
+            return names.length;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package Simulation;
+
+import java.util.SplittableRandom;
+
+/*
+可复现的随机数流(Deterministic seeded RNG streams)
+
+每条随机流由 (worldSeed, subsystem, citizenId[, tick]) 经 SplitMix64 混合派生，
+与线程数、执行顺序无关：并行Tick中每个市民使用自己的流，同一个种子的模拟可以完整回放。
+ */
+public final class RandomStreams {
+    // ==================== 子系统 ====================
+    public enum Subsystem {
+        NAME, GENDER, PERSONALITY, FAMILY, EMPLOYMENT, CITIZEN_TICK, WORLD
+    }
+
+    // ==================== 常量定义 ====================
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long TICK_GAMMA = 0xC2B2AE3D27D4EB4FL;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    // ==================== 成员变量 ====================
+    private final long worldSeed;
+    private final long[] subsystemSeeds;
+
+    public RandomStreams(long worldSeed) {
+        this.worldSeed = worldSeed;
+        Subsystem[] subsystems = Subsystem.values();
+        this.subsystemSeeds = new long[subsystems.length];
+        for (int i = 0; i < subsystems.length; i++) {
+            subsystemSeeds[i] = mix64(worldSeed ^ (GOLDEN_GAMMA * (i + 1)));
+        }
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    // ==================== 派生方法 ====================
+
+    /**
+     * 派生 (subsystem, citizenId) 的种子，同一市民在同一子系统中始终得到同一条流
+     */
+    public long seedFor(Subsystem subsystem, long citizenId) {
+        return mix64(subsystemSeeds[subsystem.ordinal()] + GOLDEN_GAMMA * citizenId);
+    }
+
+    /**
+     * 派生 (subsystem, citizenId, tick) 的种子，用于每个Tick的随机决策
+     */
+    public long seedFor(Subsystem subsystem, long citizenId, long tick) {
+        return mix64(seedFor(subsystem, citizenId) + TICK_GAMMA * tick);
+    }
+
+    public SplittableRandom stream(Subsystem subsystem, long citizenId) {
+        return new SplittableRandom(seedFor(subsystem, citizenId));
+    }
+
+    public SplittableRandom stream(Subsystem subsystem, long citizenId, long tick) {
+        return new SplittableRandom(seedFor(subsystem, citizenId, tick));
+    }
+
+    /**
+     * 无对象分配的抽样：返回 (subsystem, citizenId, tick) 流中第 draw 个 [0, 1) 的随机数，
+     * 适合在并行更新的热循环中使用
+     */
+    public double nextDouble(Subsystem subsystem, long citizenId, long tick, int draw) {
+        long bits = mix64(seedFor(subsystem, citizenId, tick) + GOLDEN_GAMMA * (draw + 1L));
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * SplitMix64 的混合函数
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
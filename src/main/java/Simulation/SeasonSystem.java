@@ -0,0 +1,87 @@
+package Simulation;
+
+import TimeControl.EventScheduler;
+import TimeControl.TickEngine;
+
+/*
+季节子系统(Season system)
+
+每 SEASON_LENGTH 个Tick切换到下一个季节，切换时输出提示并写入事件日志。
+下一次切换作为定时事件安排在 EventScheduler 上，其余Tick不做任何计数或比较；
+本季节已经过的Tick数由当前Tick数和本季节开始的Tick数相减得到(存档格式不变)。
+ */
+public class SeasonSystem {
+    // ==================== 常量定义 ====================
+    public static final String[] SEASONS = {"Spring", "Summer", "Autumn", "Winter"};
+    public static final long SEASON_LENGTH = 78894000; // 季节长度(Tick数，91.3125天)
+
+    // ==================== 成员变量 ====================
+    private final World world;
+    private final TickEngine engine;
+    private final EventScheduler events;
+    private volatile int currentSeason = 0;
+    private volatile long seasonStartTick = 0;
+    private EventScheduler.Event nextChange;
+
+    public SeasonSystem(World world, EventScheduler events) {
+        this.world = world;
+        this.engine = world.getEngine();
+        this.events = events;
+        scheduleNextChange();
+    }
+
+    private void scheduleNextChange() {
+        if (nextChange != null) {
+            nextChange.cancel();
+        }
+        nextChange = events.schedule(seasonStartTick + SEASON_LENGTH, this::changeSeason);
+    }
+
+    private void changeSeason(long tick) {
+        seasonStartTick = tick;
+        currentSeason = (currentSeason + 1) % SEASONS.length;
+        scheduleNextChange();
+        world.onSeasonChanged(tick, currentSeason);
+    }
+
+    /**
+     * 恢复季节状态(读取存档时，需先恢复Tick数)，只能在Tick线程或引擎停止时调用
+     */
+    public void set(int currentSeason, long seasonTick) {
+        this.currentSeason = currentSeason;
+        this.seasonStartTick = engine.getTickCount() - seasonTick;
+        scheduleNextChange();
+    }
+
+    public void reset() {
+        set(0, 0);
+    }
+
+    /**
+     * 获取当前季节索引
+     */
+    public int getCurrentSeason() {
+        return currentSeason;
+    }
+
+    /**
+     * 获取当前季节名称
+     */
+    public String getSeasonName() {
+        return SEASONS[currentSeason];
+    }
+
+    /**
+     * 获取本季节已经过的Tick数
+     */
+    public long getSeasonTick() {
+        return engine.getTickCount() - seasonStartTick;
+    }
+
+    /**
+     * 下一次季节切换的Tick数
+     */
+    public long getNextChangeTick() {
+        return seasonStartTick + SEASON_LENGTH;
+    }
+}
@@ -0,0 +1,435 @@
+package Simulation;
+
+import TimeControl.EventScheduler;
+import TimeControl.TickEngine;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+模拟世界(World instance)
+
+一个世界持有自己的 TickEngine、市民存储、存档、随机数流和事件日志，不再依赖静态状态。
+每个Tick按注册顺序执行以下子系统，耗时分别统计(见 TickEngine.timingReport)：
+  events          到期的定时事件(没有事件到期时只比较一次Tick数)
+  citizens        并行市民更新
+低频逻辑作为定时事件安排在 WorldCalendar 上，只在到期的Tick执行：
+  季节切换        每 SEASON_LENGTH 个Tick，同时把城市吸引力设为新季节的基础值(运行前用 loadEnvironment 读取)
+  自动存档        每 autosaveInterval 个Tick写增量存档
+  状态输出        每 statusInterval 个Tick
+每Tick都要执行的逻辑用 getEngine().register(...) 插入，而不是修改 executeTick。
+配置见 WorldConfig；多个世界可以共用一个 ForkJoinPool 在同一个进程中运行(见 WorldRunner)。
+ */
+public final class World {
+    // ==================== 常量定义 ====================
+    public static final String CITIZEN_DATA_PATH = "src/main/resources/PersonalityResources/CitizenData.json";
+    public static final String SNAPSHOT_PATH = "Profiles/WorldSnapshot.bin";
+    public static final String EVENT_JOURNAL_PATH = "logs/EventJournal.bin";
+    public static final String ENVIRONMENT_PATH = "Profiles/WorldEnviroment.json";
+    public static final long DEFAULT_WORLD_SEED = 20260222L;
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(World.class);
+
+    // ==================== 成员变量 ====================
+    private final WorldConfig config;
+    private final String tag; // 日志前缀
+    private final TickEngine engine = new TickEngine();
+    private final CitizenStore citizenStore = new CitizenStore();
+    private final CitizenUpdatePhase citizenPhase;
+    private final boolean ownsPool;
+
+    // 日历与定时事件：季节切换、自动存档、状态输出只在到期的Tick执行
+    private final EventScheduler events = new EventScheduler();
+    private final SeasonSystem seasons = new SeasonSystem(this, events);
+    private final AttractivenessSystem attractiveness = new AttractivenessSystem(seasons);
+    private final WorldCalendar calendar = new WorldCalendar(engine, events, seasons);
+    private EventScheduler.Event autosaveEvent;
+    private EventScheduler.Event statusEvent;
+
+    // 存档相关：save 命令和自动存档在Tick边界写入，避免与市民更新并发；只写上次存档后变化的市民
+    private final DeltaSaveLog saveLog;
+
+    // 随机数相关：所有随机决策都从 (世界种子, 市民ID, 子系统) 派生，保证可回放
+    private volatile RandomStreams randomStreams;
+
+    // 二进制事件日志：Tick状态、季节变化、存档和市民决策，运行后用 EventJournal 查询
+    private volatile EventJournal eventJournal;
+
+    // 运行指标(Tick耗时分布、子系统耗时、市民更新速度、日志队列、GC)
+    private final MetricsRegistry metrics;
+
+    // ==================== 构造方法 ====================
+    public World() {
+        this(new WorldConfig());
+    }
+
+    /**
+     * 使用独立线程池的世界(并行度为CPU核数)
+     */
+    public World(WorldConfig config) {
+        this(config, new ForkJoinPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * 市民更新在共享线程池上执行的世界，shutdown() 不会关闭该线程池
+     */
+    public World(WorldConfig config, ForkJoinPool pool) {
+        this(config, pool, false);
+    }
+
+    private World(WorldConfig config, ForkJoinPool pool, boolean ownsPool) {
+        this.config = config;
+        this.tag = WorldConfig.DEFAULT_NAME.equals(config.getName()) ? "[World]" : "[World " + config.getName() + "]";
+        this.citizenPhase = new CitizenUpdatePhase(citizenStore, pool, config.getChunkSize());
+        this.ownsPool = ownsPool;
+        this.saveLog = new DeltaSaveLog(Paths.get(config.getSnapshotPath()));
+        this.randomStreams = new RandomStreams(config.getSeed());
+        engine.getCommands().setErrorHandler(e -> {
+            System.err.println("CommandError:" + e.getMessage());
+            LOG.log(tag + "Command failed", e);
+        });
+        engine.register(events);
+        engine.register(citizenPhase);
+        scheduleIntervalEvents();
+        this.metrics = new MetricsRegistry(this);
+    }
+
+    // ==================== 内置定时事件 ====================
+
+    /**
+     * 按当前Tick数重新安排自动存档和状态输出(Tick数被存档或重置改变后调用)，间隔为0时不安排
+     */
+    private void scheduleIntervalEvents() {
+        if (autosaveEvent != null) {
+            autosaveEvent.cancel();
+        }
+        if (statusEvent != null) {
+            statusEvent.cancel();
+        }
+        long autosaveInterval = config.getAutosaveInterval();
+        autosaveEvent = autosaveInterval > 0 ? calendar.every(autosaveInterval, tick -> checkpoint()) : null;
+        long statusInterval = config.getStatusInterval();
+        statusEvent = statusInterval > 0 ? calendar.every(statusInterval, this::printStatus) : null;
+    }
+
+    private void printStatus(long tick) {
+        System.out.printf("[Tick %d] 季节: %s | 速度: %.1fx | 暂停: %s%n",
+            tick, seasons.getSeasonName(), engine.getSpeedMultiplier(), engine.isPaused() ? "是" : "否");
+        recordEvent(tick, EventJournal.WORLD, EventJournal.EventType.TICK_STATUS,
+            engine.getSpeedMultiplier(), seasons.getCurrentSeason());
+    }
+
+    /**
+     * 由 SeasonSystem 的季节切换事件调用
+     */
+    void onSeasonChanged(long tick, int season) {
+        attractiveness.onSeasonChanged(season);
+        System.out.println("=== 季节变更: " + SeasonSystem.SEASONS[season] + " ===");
+        recordEvent(tick, EventJournal.WORLD, EventJournal.EventType.SEASON_CHANGE,
+            attractiveness.getCityAttractiveness(), season);
+    }
+
+    // ==================== 控制方法 ====================
+
+    /**
+     * 在下一个Tick边界写入增量存档(经命令队列，暂停时也会执行)
+     */
+    public void requestSave() {
+        engine.submit(this::checkpoint);
+    }
+
+    /**
+     * 重置Tick数、季节和城市吸引力(不清空市民)，只能在Tick线程或引擎停止时调用
+     */
+    public void reset() {
+        engine.setTickCount(0);
+        seasons.reset();
+        attractiveness.reset();
+        scheduleIntervalEvents();
+    }
+
+    /**
+     * 停止后释放资源：市民线程池(共享时不关闭)、增量存档和事件日志
+     */
+    public void shutdown() {
+        engine.stop();
+        metrics.stopDump();
+        if (ownsPool) {
+            citizenPhase.shutdown();
+        }
+        saveLog.close();
+        closeEventJournal();
+        if (engine.getScheduler().getDroppedTicks() > 0) {
+            LOG.log(CreateLogFile.LogLevel.WARN,
+                "%sTick loop fell behind, %d ticks dropped", tag, engine.getScheduler().getDroppedTicks());
+        }
+    }
+
+    // ==================== 市民与存档 ====================
+
+    /**
+     * 从CitizenData.json流式载入市民到列式存储，读取失败时返回 false(已读取的市民保留在存储中)
+     */
+    public boolean loadCitizens(String filePath) {
+        try {
+            int count = citizenStore.loadFromJson(Paths.get(filePath));
+            System.out.println("市民数量: " + count);
+            LOG.log("%sLoaded %d citizens from %s", tag, count, filePath);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(1):" + e.getMessage());
+            LOG.log(tag + "Failed to load citizens", e);
+            return false;
+        }
+    }
+
+    /**
+     * 读取环境配置(各季节的基础城市吸引力)，应在读取存档之前调用；文件不存在时使用默认值，读取失败时返回 false
+     */
+    public boolean loadEnvironment() {
+        String environmentPath = config.getEnvironmentPath();
+        if (environmentPath == null || !Files.exists(Paths.get(environmentPath))) {
+            LOG.log("%sNo environment profile, using default attractiveness %d", tag, AttractivenessSystem.DEFAULT_ATTRACTIVENESS);
+            return true;
+        }
+        try {
+            Path path = Paths.get(environmentPath);
+            attractiveness.loadSeasonalBases(new JSONObject(Files.readString(path, StandardCharsets.UTF_8)));
+            LOG.log("%sLoaded seasonal attractiveness from %s", tag, environmentPath);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(1):" + e.getMessage());
+            LOG.log(tag + "Failed to read environment profile", e);
+            return false;
+        } catch (JSONException e) {
+            System.err.println("FileError(2):" + e.getMessage());
+            LOG.log(tag + "Failed to parse environment profile", e);
+            return false;
+        }
+    }
+
+    /**
+     * 是否存在可恢复的增量存档
+     */
+    public boolean hasCheckpoint() {
+        return saveLog.exists();
+    }
+
+    /**
+     * 增量存档：只追加上次存档后变化的市民，只能在Tick线程或模拟停止时调用
+     */
+    public boolean checkpoint() {
+        try {
+            long start = System.nanoTime();
+            int written = saveLog.checkpoint(currentState(), citizenStore);
+            long elapsedUs = (System.nanoTime() - start) / 1_000;
+            LOG.log("%sCheckpoint at tick %d: %d citizens written in %d us", tag,
+                engine.getTickCount(), written, elapsedUs);
+            recordEvent(engine.getTickCount(), EventJournal.WORLD, EventJournal.EventType.CHECKPOINT, written, elapsedUs);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(3):" + e.getMessage());
+            LOG.log(tag + "Failed to write checkpoint", e);
+            return false;
+        }
+    }
+
+    /**
+     * 读取基础存档并重放增量存档，失败时清空市民并重置世界状态
+     */
+    public boolean loadCheckpoint() {
+        try {
+            long start = System.nanoTime();
+            applyWorldState(saveLog.load(citizenStore));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("读取存档: " + config.getSnapshotPath() + " (Tick " + engine.getTickCount() + ", 市民 " + citizenStore.size() + ", " + elapsedMs + " ms)");
+            LOG.log("%sCheckpoint loaded at tick %d in %d ms", tag, engine.getTickCount(), elapsedMs);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(4):" + e.getMessage());
+            LOG.log(tag + "Failed to load checkpoint", e);
+            discardPartialLoad();
+            return false;
+        }
+    }
+
+    /**
+     * 写入全量二进制存档(世界状态 + 市民列)，只能在Tick线程或模拟停止时调用
+     */
+    public boolean saveSnapshot(String filePath) {
+        try {
+            long start = System.nanoTime();
+            WorldSnapshot.write(Paths.get(filePath), currentState(), citizenStore);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("[System] Saved " + citizenStore.size() + " citizens to " + filePath + " (" + elapsedMs + " ms)");
+            LOG.log("%sSnapshot saved to %s at tick %d in %d ms", tag, filePath, engine.getTickCount(), elapsedMs);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(3):" + e.getMessage());
+            LOG.log(tag + "Failed to save snapshot", e);
+            return false;
+        }
+    }
+
+    /**
+     * 读取二进制存档(内存映射)，恢复世界状态和市民列，失败时清空市民并重置世界状态
+     */
+    public boolean loadSnapshot(String filePath) {
+        try {
+            long start = System.nanoTime();
+            WorldSnapshot world = WorldSnapshot.read(Paths.get(filePath), citizenStore);
+            citizenStore.clearDirty();
+            applyWorldState(world);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("读取存档: " + filePath + " (Tick " + world.getTickCount() + ", 市民 " + citizenStore.size() + ", " + elapsedMs + " ms)");
+            LOG.log("%sSnapshot loaded from %s at tick %d in %d ms", tag, filePath, world.getTickCount(), elapsedMs);
+            return true;
+        } catch (IOException e) {
+            System.err.println("FileError(4):" + e.getMessage());
+            LOG.log(tag + "Failed to load snapshot", e);
+            discardPartialLoad();
+            return false;
+        }
+    }
+
+    /**
+     * 读取失败时存储中可能只有部分市民：清空市民并重置世界状态，调用方可以安全地改用其他来源载入
+     */
+    private void discardPartialLoad() {
+        citizenStore.clear();
+        citizenStore.clearDirty();
+        reset();
+    }
+
+    private WorldSnapshot currentState() {
+        return new WorldSnapshot(engine.getTickCount(), seasons.getCurrentSeason(), seasons.getSeasonTick(),
+            attractiveness.getCityAttractiveness(), randomStreams.getWorldSeed());
+    }
+
+    private void applyWorldState(WorldSnapshot world) {
+        engine.setTickCount(world.getTickCount());
+        seasons.set(world.getCurrentSeason(), world.getSeasonTick());
+        attractiveness.set(world.getCityAttractiveness());
+        randomStreams = new RandomStreams(world.getWorldSeed());
+        scheduleIntervalEvents();
+    }
+
+    // ==================== 事件日志 ====================
+
+    /**
+     * 打开二进制事件日志，失败时只记录错误，模拟照常运行
+     */
+    public void openEventJournal() {
+        if (eventJournal != null || config.getEventJournalPath() == null) {
+            return;
+        }
+        try {
+            eventJournal = EventJournal.open(Paths.get(config.getEventJournalPath()));
+        } catch (IOException e) {
+            System.err.println("FileError(5):" + e.getMessage());
+            LOG.log(tag + "Failed to open event journal", e);
+        }
+    }
+
+    public void closeEventJournal() {
+        EventJournal journal = eventJournal;
+        eventJournal = null;
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("FileError(5):" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 记录一个二进制事件(事件日志未打开时忽略)，可在市民更新的工作线程中调用
+     */
+    public void recordEvent(long tick, int citizenId, EventJournal.EventType type, double value, long extra) {
+        EventJournal journal = eventJournal;
+        if (journal != null) {
+            journal.record(tick, citizenId, type, value, extra);
+        }
+    }
+
+    // ==================== 查询与配置 ====================
+
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    public String getName() {
+        return config.getName();
+    }
+
+    public TickEngine getEngine() {
+        return engine;
+    }
+
+    public SeasonSystem getSeasons() {
+        return seasons;
+    }
+
+    public AttractivenessSystem getAttractiveness() {
+        return attractiveness;
+    }
+
+    /**
+     * 获取世界日历，用于查询日期和安排定时事件(只能在Tick线程或引擎停止时安排)
+     */
+    public WorldCalendar getCalendar() {
+        return calendar;
+    }
+
+    public EventScheduler getEvents() {
+        return events;
+    }
+
+    public CitizenUpdatePhase getCitizenPhase() {
+        return citizenPhase;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 获取市民列式存储
+     */
+    public CitizenStore getCitizenStore() {
+        return citizenStore;
+    }
+
+    public long getTickCount() {
+        return engine.getTickCount();
+    }
+
+    /**
+     * 设置世界种子，重建所有随机数流
+     */
+    public void setWorldSeed(long seed) {
+        randomStreams = new RandomStreams(seed);
+        LOG.log("%sWorld seed set to %d", tag, seed);
+    }
+
+    /**
+     * 获取随机数流，市民更新逻辑通过它按 (市民ID, 子系统, Tick) 取随机数
+     */
+    public RandomStreams getRandomStreams() {
+        return randomStreams;
+    }
+
+    /**
+     * 注册市民更新逻辑，每个Tick在线程池上按块并行执行
+     */
+    public void setCitizenUpdater(CitizenUpdater updater) {
+        citizenPhase.setUpdater(updater);
+    }
+}
@@ -0,0 +1,142 @@
+package Simulation;
+
+import TimeControl.EventScheduler;
+import TimeControl.TickEngine;
+
+import java.util.function.LongConsumer;
+
+/*
+世界日历(World calendar)
+
+把Tick数换算成天、星期和钟点(1 Tick = 0.1秒)，并在 EventScheduler 上按日历安排事件：
+  at / after      在指定Tick或若干Tick之后执行一次
+  every           每隔固定Tick数执行(对齐到周期的整数倍)
+  everyDay        每天的固定时刻执行(例如市民作息)
+  everyWeek       每周固定一天的固定时刻执行(例如发薪日)
+事件只在到期的Tick执行，其余Tick不做任何检查。季节由 SeasonSystem 维护(存档中单独保存)，
+这里只提供查询。天和星期从Tick数直接计算，第0天是星期一。
+ */
+public class WorldCalendar {
+    // ==================== 常量定义 ====================
+    public static final long TICKS_PER_SECOND = 10;
+    public static final long TICKS_PER_MINUTE = 60 * TICKS_PER_SECOND;
+    public static final long TICKS_PER_HOUR = 60 * TICKS_PER_MINUTE;
+    public static final long TICKS_PER_DAY = 24 * TICKS_PER_HOUR;           // 864000
+    public static final int DAYS_PER_WEEK = 7;
+    public static final long TICKS_PER_WEEK = DAYS_PER_WEEK * TICKS_PER_DAY;
+    public static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    // ==================== 成员变量 ====================
+    private final TickEngine engine;
+    private final EventScheduler events;
+    private final SeasonSystem seasons;
+
+    public WorldCalendar(TickEngine engine, EventScheduler events, SeasonSystem seasons) {
+        this.engine = engine;
+        this.events = events;
+        this.seasons = seasons;
+    }
+
+    // ==================== 换算 ====================
+
+    public static long dayOf(long tick) {
+        return tick / TICKS_PER_DAY;
+    }
+
+    public static int dayOfWeek(long tick) {
+        return (int) (dayOf(tick) % DAYS_PER_WEEK);
+    }
+
+    public static long weekOf(long tick) {
+        return tick / TICKS_PER_WEEK;
+    }
+
+    public static long tickOfDay(long tick) {
+        return tick % TICKS_PER_DAY;
+    }
+
+    /**
+     * 格式化为 "Day 12 (Week 1, Sat) 08:30"
+     */
+    public static String format(long tick) {
+        long ofDay = tickOfDay(tick);
+        return String.format("Day %d (Week %d, %s) %02d:%02d", dayOf(tick), weekOf(tick), DAY_NAMES[dayOfWeek(tick)],
+            ofDay / TICKS_PER_HOUR, ofDay % TICKS_PER_HOUR / TICKS_PER_MINUTE);
+    }
+
+    // ==================== 当前日期 ====================
+
+    public long getDay() {
+        return dayOf(engine.getTickCount());
+    }
+
+    public int getDayOfWeek() {
+        return dayOfWeek(engine.getTickCount());
+    }
+
+    public long getWeek() {
+        return weekOf(engine.getTickCount());
+    }
+
+    public long getTickOfDay() {
+        return tickOfDay(engine.getTickCount());
+    }
+
+    public SeasonSystem getSeasons() {
+        return seasons;
+    }
+
+    @Override
+    public String toString() {
+        return format(engine.getTickCount()) + " " + seasons.getSeasonName();
+    }
+
+    // ==================== 安排事件(Tick线程) ====================
+
+    /**
+     * 在指定Tick执行一次
+     */
+    public EventScheduler.Event at(long tick, LongConsumer action) {
+        return events.schedule(tick, action);
+    }
+
+    /**
+     * 在 delayTicks 个Tick之后执行一次
+     */
+    public EventScheduler.Event after(long delayTicks, LongConsumer action) {
+        return events.schedule(engine.getTickCount() + Math.max(1, delayTicks), action);
+    }
+
+    /**
+     * 在Tick数为 period 整数倍时执行(与原先的 tick % period == 0 相同)
+     */
+    public EventScheduler.Event every(long period, LongConsumer action) {
+        return events.scheduleRepeating(nextAligned(period, 0), period, action);
+    }
+
+    /**
+     * 每天在 tickOfDay(0 ~ TICKS_PER_DAY-1)时执行
+     */
+    public EventScheduler.Event everyDay(long tickOfDay, LongConsumer action) {
+        return events.scheduleRepeating(nextAligned(TICKS_PER_DAY, tickOfDay), TICKS_PER_DAY, action);
+    }
+
+    /**
+     * 每周在 dayOfWeek(0 = 星期一)的 tickOfDay 时执行
+     */
+    public EventScheduler.Event everyWeek(int dayOfWeek, long tickOfDay, LongConsumer action) {
+        return events.scheduleRepeating(nextAligned(TICKS_PER_WEEK, dayOfWeek * TICKS_PER_DAY + tickOfDay),
+            TICKS_PER_WEEK, action);
+    }
+
+    /**
+     * 当前Tick之后第一个满足 tick % period == offset 的Tick
+     */
+    private long nextAligned(long period, long offset) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than zero, but was " + period);
+        }
+        long now = engine.getTickCount();
+        return now - Math.floorMod(now - offset, period) + period;
+    }
+}
@@ -0,0 +1,238 @@
+package Simulation;
+
+import TimeControl.TickEngine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+世界控制命令(World control commands)
+
+取代原先在平台守护线程中轮询 Scanner 的控制台监听：
+1. 命令来源(标准输入、本机套接字、命令文件)各由一个虚拟线程读取，阻塞读取不占用平台线程；
+2. 读取线程只负责解析，解析通过的命令进入 TickEngine 的命令队列，在Tick边界由Tick线程执行；
+3. 格式错误直接回复给命令来源，读取失败记录到日志，不再静默忽略。
+
+命令: p(暂停) r(恢复) s X.X(调速) s max(不限速) save(存档) timing(子系统耗时) metrics(运行指标) q(退出) help
+ */
+public class WorldCommands implements Closeable {
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(WorldCommands.class);
+    public static final String HELP = "命令: p(暂停) r(恢复) s X.X(调速) s max(不限速) save(存档) timing(耗时) metrics(指标) q(退出)";
+    private static final long FILE_POLL_MILLIS = 200;
+
+    // ==================== 成员变量 ====================
+    private final World world;
+    private final TickEngine engine;
+    private final List<Closeable> sources = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    public WorldCommands(World world) {
+        this.world = world;
+        this.engine = world.getEngine();
+    }
+
+    // ==================== 命令解析 ====================
+
+    /**
+     * 解析一行命令并排入Tick边界队列，reply 接收执行结果或错误提示；格式错误时返回 false
+     */
+    public boolean submit(String line, Consumer<String> reply) {
+        String command = line.trim().toLowerCase();
+        switch (command) {
+            case "":
+                return true;
+            case "p":
+                engine.submit(() -> {
+                    engine.pause();
+                    reply.accept("[System] Paused");
+                    LOG.log("[System] Paused");
+                });
+                return true;
+            case "r":
+                engine.submit(() -> {
+                    engine.resume();
+                    reply.accept("[System] Repaired");
+                    LOG.log("[System] Repaired");
+                });
+                return true;
+            case "save":
+                world.requestSave();
+                reply.accept("[System] Saving at next tick...");
+                return true;
+            case "timing":
+                engine.submit(() -> reply.accept(engine.timingReport().stripTrailing()));
+                return true;
+            case "metrics":
+                engine.submit(() -> reply.accept(world.getMetrics().report().stripTrailing()));
+                return true;
+            case "q":
+                engine.submit(() -> {
+                    engine.stop();
+                    reply.accept("[System] Exiting...");
+                    LOG.log("[System] Exiting...");
+                });
+                return true;
+            case "help":
+                reply.accept(HELP);
+                return true;
+            case "s max":
+                engine.submit(() -> {
+                    engine.setHeadless(true);
+                    reply.accept("[系统] 速度已调整为不限速(headless)");
+                });
+                return true;
+            default:
+                if (command.startsWith("s ")) {
+                    double newSpeed;
+                    try {
+                        newSpeed = Double.parseDouble(command.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        newSpeed = 0;
+                    }
+                    if (newSpeed > 0) {
+                        double speed = newSpeed;
+                        engine.submit(() -> {
+                            engine.setSpeedMultiplier(speed);
+                            engine.setHeadless(false);
+                            reply.accept(String.format("[系统] 速度已调整为 %.1fx", speed));
+                        });
+                        return true;
+                    }
+                    reply.accept("[错误] 格式错误，请使用: s 2.0");
+                    return false;
+                }
+                reply.accept("[错误] 未知命令: " + command + "，" + HELP);
+                return false;
+        }
+    }
+
+    // ==================== 命令来源 ====================
+
+    /**
+     * 从标准输入读取命令(输入结束时读取线程退出)
+     */
+    public Thread startStdin(BufferedReader stdin) {
+        return Thread.ofVirtual().name("Commands-stdin").start(() -> {
+            try {
+                String line;
+                while (!closed && (line = stdin.readLine()) != null) {
+                    submit(line, System.out::println);
+                }
+            } catch (IOException e) {
+                LOG.log("[WorldCommands]Failed to read commands from stdin", e);
+            }
+        });
+    }
+
+    /**
+     * 在本机端口上接收命令，每个连接一个虚拟线程，结果回复给该连接
+     */
+    public Thread startSocket(int port) throws IOException {
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        sources.add(server);
+        LOG.log("[WorldCommands]Listening for commands on %s", server.getLocalSocketAddress());
+        return Thread.ofVirtual().name("Commands-socket-" + server.getLocalPort()).start(() -> {
+            while (!closed) {
+                try {
+                    Socket client = server.accept();
+                    Thread.ofVirtual().name("Commands-client-" + client.getPort()).start(() -> serve(client));
+                } catch (IOException e) {
+                    if (!closed) {
+                        LOG.log("[WorldCommands]Command socket failed", e);
+                    }
+                    return;
+                }
+            }
+        });
+    }
+
+    private void serve(Socket client) {
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            sources.add(socket);
+            Consumer<String> reply = message -> {
+                synchronized (out) {
+                    out.println(message);
+                }
+            };
+            String line;
+            while (!closed && (line = in.readLine()) != null) {
+                submit(line, reply);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                LOG.log("[WorldCommands]Command connection failed", e);
+            }
+        } finally {
+            sources.remove(client);
+        }
+    }
+
+    /**
+     * 从命令文件读取命令：先执行已有的行，之后继续读取追加的行(类似 tail -f)。
+     * 只有读到换行符的行才会执行，分几次写入的一行在写完之前留在缓冲中
+     */
+    public Thread startFile(Path path) {
+        return Thread.ofVirtual().name("Commands-file").start(() -> {
+            try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                char[] chunk = new char[4096];
+                StringBuilder partial = new StringBuilder();
+                while (!closed) {
+                    int read = in.read(chunk);
+                    if (read < 0) {
+                        Thread.sleep(FILE_POLL_MILLIS);
+                        continue;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        char c = chunk[i];
+                        if (c != '\n') {
+                            partial.append(c);
+                            continue;
+                        }
+                        int end = partial.length();
+                        if (end > 0 && partial.charAt(end - 1) == '\r') {
+                            end--;
+                        }
+                        submit(partial.substring(0, end), System.out::println);
+                        partial.setLength(0);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("FileError(6):" + e.getMessage());
+                LOG.log("[WorldCommands]Failed to read command file " + path, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * 停止所有命令来源(标准输入的读取线程在下一行输入后退出)
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Closeable source : sources) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                LOG.log("[WorldCommands]Failed to close command source", e);
+            }
+        }
+        sources.clear();
+    }
+}
@@ -0,0 +1,125 @@
+package Simulation;
+
+/*
+世界配置(World configuration)
+
+一个 World 实例的名称、种子、文件路径和子系统间隔。默认值与原先的单世界模式相同；
+named(name) 给批量实验用：存档放在 Profiles/worlds/<名称>/ 下，不写事件日志、不自动存档、不输出状态。
+设置方法返回自身，可以链式调用：WorldConfig.named("city-1").setSeed(1).setCitizenDataPath(...)
+ */
+public class WorldConfig {
+    // ==================== 常量定义 ====================
+    public static final String DEFAULT_NAME = "default";
+    public static final String WORLDS_DIRECTORY = "Profiles/worlds";
+
+    // ==================== 成员变量 ====================
+    private String name = DEFAULT_NAME;
+    private long seed = World.DEFAULT_WORLD_SEED;
+    private String citizenDataPath = World.CITIZEN_DATA_PATH;
+    private String environmentPath = World.ENVIRONMENT_PATH;    // null 表示使用默认的城市吸引力
+    private String snapshotPath = World.SNAPSHOT_PATH;
+    private String eventJournalPath = World.EVENT_JOURNAL_PATH; // null 表示不写事件日志
+    private long autosaveInterval = 36000;                     // 0 表示只在 save 命令时存档
+    private long statusInterval = 1000;                        // 0 表示不输出状态
+    private int chunkSize = CitizenUpdatePhase.MIN_CHUNK_SIZE;
+
+    /**
+     * 批量实验用的配置：独立的存档目录，关闭事件日志、自动存档和状态输出
+     */
+    public static WorldConfig named(String name) {
+        return new WorldConfig()
+            .setName(name)
+            .setSnapshotPath(WORLDS_DIRECTORY + "/" + name + "/WorldSnapshot.bin")
+            .setEventJournalPath(null)
+            .setAutosaveInterval(0)
+            .setStatusInterval(0);
+    }
+
+    // ==================== 设置方法 ====================
+
+    public WorldConfig setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public WorldConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public WorldConfig setCitizenDataPath(String citizenDataPath) {
+        this.citizenDataPath = citizenDataPath;
+        return this;
+    }
+
+    public WorldConfig setEnvironmentPath(String environmentPath) {
+        this.environmentPath = environmentPath;
+        return this;
+    }
+
+    public WorldConfig setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        return this;
+    }
+
+    public WorldConfig setEventJournalPath(String eventJournalPath) {
+        this.eventJournalPath = eventJournalPath;
+        return this;
+    }
+
+    public WorldConfig setAutosaveInterval(long autosaveInterval) {
+        this.autosaveInterval = autosaveInterval;
+        return this;
+    }
+
+    public WorldConfig setStatusInterval(long statusInterval) {
+        this.statusInterval = statusInterval;
+        return this;
+    }
+
+    /**
+     * 市民更新阶段的最小块大小
+     */
+    public WorldConfig setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    // ==================== 查询方法 ====================
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getCitizenDataPath() {
+        return citizenDataPath;
+    }
+
+    public String getEnvironmentPath() {
+        return environmentPath;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public String getEventJournalPath() {
+        return eventJournalPath;
+    }
+
+    public long getAutosaveInterval() {
+        return autosaveInterval;
+    }
+
+    public long getStatusInterval() {
+        return statusInterval;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -1,55 +1,48 @@
 package Simulation;
 
-import java.util.Scanner;
-import java.util.concurrent.atomic.AtomicLong;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import TimeControl.TickEngine;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+
+/*
+世界环境(World environment launcher)
 
+控制台入口和静态接口：状态和Tick逻辑都在 World 实例中(见 World、TickEngine)，
+这里只保留启动参数、命令来源和 GUI 使用的静态方法，转发给默认世界。
+命令(见 WorldCommands)来自标准输入，也可以用 --port N 从本机套接字、--commands 文件 从命令文件读取。
+ */
 public class WorldEnviroment {
     // ==================== 核心变量 ====================
-    private static volatile boolean isRunning = true;
-    private static volatile boolean isPaused = false;
-    private static volatile double speedMultiplier = 1.0;//speedMultipulier用于存储当前的倍速
-    private static AtomicLong tickCount = new AtomicLong(0);
-    
-    // 季节相关
-    private static final String[] SEASONS = {"Spring", "Summer", "Autumn", "Winter"};
-    private static final long SEASON_LENGTH = 78894000; // 季节长度(Tick数)
-    private static int currentSeason = 0;
-    private static long seasonTick = 0;
-    
-    //城市数据相关
-    private static int CityAtractiveness = 100;//初始化城市吸引力数据
-    
-    // 控制台输入
-    private static Scanner scanner = new Scanner(System.in);
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(WorldEnviroment.class);
+    private static final World world = new World();
+    private static final TickEngine engine = world.getEngine();
+
+    // 控制台输入与命令(在Tick边界执行)
+    private static final BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in));
+    private static final WorldCommands commands = new WorldCommands(world);
 
     public static void startSimulate(double speed){
         //判断程序是否已经在运行
-        if (isRunning) {
+        if (engine.isRunning()) {
             System.out.println("Simulation already running");
-            CreateLogFile.getInstance().log("Simulation already running");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.WARN);
+            LOG.log("Simulation already running");
             //业务逻辑
             stopSimulate();
         }
 
-        //重置状态，后期使用读取存档数据
-        isRunning = true;
-        isPaused = false;
-        speedMultiplier = speed > 0 ? speed : 1.0;
-        tickCount.set(0);
-        currentSeason = 0;
-        seasonTick = 0;
+        //重置状态，存在存档时读取存档数据
+        engine.start();
+        engine.setSpeedMultiplier(speed > 0 ? speed : 1.0);
+        world.reset();
+        if (world.hasCheckpoint()) {
+            world.loadCheckpoint();
+        }
 
         System.out.println("Start simulation");
-        CreateLogFile.getInstance().log("[WorldEnviroment]Start simulation");
-        CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
-        CreateLogFile.getInstance().flush();
+        LOG.log("[WorldEnviroment]Start simulation");
     }
 
     public static void main(String[] args) {
@@ -57,9 +50,52 @@ public class WorldEnviroment {
 
         System.out.println("[WorldEnviroment]Basic city settings");
 
-        System.out.print("请输入速度倍数 (例如: 2.0 或 0.5): ");
+        //--headless 参数或输入 max 时不做节流，以最快速度执行Tick；--seed N 指定世界种子
+        //--port N 在本机端口接收命令，--commands 文件 从命令文件读取命令
+        //--metrics 文件 定期把运行指标追加到文件，--metrics-interval 秒 设置间隔(默认10秒)
+        boolean headless = false;
+        double speedMultiplier = 1.0;
+        int commandPort = -1;
+        String commandFile = null;
+        String metricsFile = null;
+        long metricsIntervalSeconds = 10;
+        for (int i = 0; i < args.length; i++) {
+            if ("--headless".equals(args[i])) {
+                headless = true;
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    commandPort = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("[错误] 端口必须是整数: " + args[i]);
+                }
+            } else if ("--commands".equals(args[i]) && i + 1 < args.length) {
+                commandFile = args[++i];
+            } else if ("--metrics".equals(args[i]) && i + 1 < args.length) {
+                metricsFile = args[++i];
+            } else if ("--metrics-interval".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    metricsIntervalSeconds = Math.max(1, Long.parseLong(args[++i]));
+                } catch (NumberFormatException e) {
+                    System.err.println("[错误] 间隔必须是整数(秒): " + args[i]);
+                }
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    setWorldSeed(Long.parseLong(args[++i]));
+                } catch (NumberFormatException e) {
+                    System.err.println("[错误] 种子必须是整数: " + args[i]);
+                }
+            }
+        }
+        if (!headless) {
+            System.out.print("请输入速度倍数 (例如: 2.0 或 0.5, max 为不限速): ");
+        }
         try {
-            speedMultiplier = Double.parseDouble(scanner.nextLine());
+            String input = headless ? "max" : stdin.readLine().trim();
+            if ("max".equalsIgnoreCase(input)) {
+                headless = true;
+            } else {
+                speedMultiplier = Double.parseDouble(input);
+            }
 
             if (speedMultiplier <= 0) {
             // 构建包含原始值的错误信息
@@ -67,7 +103,7 @@ public class WorldEnviroment {
             // 向控制台输出错误（使用标准错误流更合适）
             System.err.println(errorMsg);
             // 记录日志
-            CreateLogFile.getInstance().log(errorMsg);
+            LOG.log(errorMsg);
             CreateLogFile.getInstance().flush();
             // 修正值
             speedMultiplier = 1.0;
@@ -76,183 +112,138 @@ public class WorldEnviroment {
             speedMultiplier = 1.0;
         }
         
+        engine.setSpeedMultiplier(speedMultiplier);
+        engine.setHeadless(headless);
+        world.openEventJournal();
+        // 各季节的基础城市吸引力在读取存档之前载入，存档中保存的当前吸引力随后覆盖
+        world.loadEnvironment();
+        // 有存档时从二进制存档恢复，否则(或读取失败，此时市民已被清空)从CitizenData.json载入市民
+        if (!world.hasCheckpoint() || !world.loadCheckpoint()) {
+            world.loadCitizens(world.getConfig().getCitizenDataPath());
+        }
+
         System.out.println("=== Tick管理器启动 ===");
-        System.out.println("速度: " + speedMultiplier + "x");
-        System.out.println("季节: " + SEASONS[currentSeason]);
-        System.out.println("命令: p(暂停) r(恢复) s X.X(调速) q(退出)");
+        System.out.println("速度: " + (headless ? "不限速(headless)" : speedMultiplier + "x"));
+        System.out.println("季节: " + world.getSeasons().getSeasonName());
+        System.out.println("城市吸引力: " + world.getAttractiveness().getCityAttractiveness());
+        System.out.println("世界种子: " + world.getRandomStreams().getWorldSeed());
+        System.out.println(WorldCommands.HELP);
         
-        // 启动控制台监听线程
-        startConsoleListener();
-        
-        // 主循环
-        while (isRunning) {
+        // 启动命令来源(虚拟线程)，命令在Tick边界执行
+        commands.startStdin(stdin);
+        if (commandPort >= 0) {
             try {
-                if (isPaused) {
-                    Thread.sleep(100);
-                    continue;
-                }
-                
-                // 执行一个Tick
-                executeTick();
-                
-                // 计算休眠时间 (100ms / 速度倍数)
-                long sleepTime = (long)(100 / speedMultiplier);
-                if (sleepTime < 1) sleepTime = 1;
-                Thread.sleep(sleepTime);
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+                commands.startSocket(commandPort);
+            } catch (IOException e) {
+                System.err.println("[错误] 无法监听端口 " + commandPort + ": " + e.getMessage());
+                LOG.log("[WorldEnviroment]Failed to open command port", e);
             }
         }
-        
-        System.out.println("Tick管理器已停止，总计执行 " + tickCount.get() + " Ticks");
-        scanner.close();
-
-        try{
-
-            String jsonString = readFileString("Profiles/WorldEnviroment.json");
-            JSONObject json = new JSONObject(jsonString);
-            double CityAttractiveness = json.getDouble("CityAttractiveness");
-            System.out.println("读取到" + CityAttractiveness);
-
-
-            if ("Spring".equals(currentSeason)) {//设置不同季节的基本城市吸引值
-                CityAttractiveness = 100;
-            } else if("Summer".equals(currentSeason)) {
-                CityAttractiveness = 100;
-            } else if("Autumn".equals(currentSeason)) {
-                CityAttractiveness = 100;
-            } else if("Winter".equals(currentSeason)) {
-                CityAttractiveness = 100;
-            } else {
-                CityAttractiveness = 100;
-            }
-            
-        } catch (IOException e) {
-            System.err.println("FileError(1):" + e.getMessage());
-            e.printStackTrace();
-            } catch (JSONException e) {
-            System.err.println("FileError(2):" + e.getMessage());
-            e.printStackTrace();
-            }
+        if (commandFile != null) {
+            commands.startFile(Paths.get(commandFile));
+        }
+        if (metricsFile != null) {
+            world.getMetrics().startDump(Paths.get(metricsFile), metricsIntervalSeconds * 1000);
         }
+        
+        // 主循环(固定步长调度，落后时补执行)
+        engine.run();
+        
+        System.out.println("Tick管理器已停止，总计执行 " + engine.getTickCount() + " Ticks");
+        String timing = engine.timingReport();
+        System.out.print(timing);
+        LOG.log("[WorldEnviroment]Tick system timing:%n%s", timing);
+        commands.close();
+        world.shutdown();
+    }
 
     //补充stopSimulate()方法的实现逻辑
     private static void stopSimulate() {
-        if (isRunning) {
-            isRunning = false;
+        if (engine.isRunning()) {
+            engine.stop();
             System.out.println("Simulation stopped");
-            CreateLogFile.getInstance().log("Simulation stopped");
+            LOG.log("Simulation stopped");
         }
     }
+    
+    // ==================== 默认世界的静态接口 ====================
+
     /**
-     * 执行单个Tick的逻辑
+     * 获取默认世界实例
      */
-    private static void executeTick() {
-        long currentTick = tickCount.incrementAndGet();
-        seasonTick++;
-        
-        // 季节切换检测
-        if (seasonTick >= SEASON_LENGTH) {
-            seasonTick = 0;
-            currentSeason = (currentSeason + 1) % SEASONS.length;
-            System.out.println("=== 季节变更: " + SEASONS[currentSeason] + " ===");
-        }
-        
-        // 每1000个Tick输出一次状态
-        if (currentTick % 1000 == 0) {
-            System.out.printf("[Tick %d] 季节: %s | 速度: %.1fx | 暂停: %s%n",
-                currentTick, SEASONS[currentSeason], speedMultiplier, isPaused ? "是" : "否");
-        }
-    
+    public static World getWorld() {
+        return world;
+    }
 
-        // #逻辑添加点：在这里添加你的世界逻辑
+    /**
+     * 从CitizenData.json流式载入市民到列式存储，读取失败时返回 false
+     */
+    public static boolean loadCitizens(String filePath) {
+        return world.loadCitizens(filePath);
+    }
 
+    /**
+     * 增量存档：只追加上次存档后变化的市民，只能在Tick线程或模拟停止时调用
+     */
+    public static boolean checkpoint() {
+        return world.checkpoint();
+    }
 
+    /**
+     * 读取基础存档并重放增量存档
+     */
+    public static boolean loadCheckpoint() {
+        return world.loadCheckpoint();
     }
-    
+
     /**
-     * 控制台命令监听
+     * 写入全量二进制存档(世界状态 + 市民列)，只能在Tick线程或模拟停止时调用
      */
-    private static void startConsoleListener() {
-        Thread listenerThread = new Thread(() -> {
-            while (isRunning) {
-                try {
-                    if (scanner.hasNextLine()) {
-                        String command = scanner.nextLine().trim().toLowerCase();
-                        
-                        switch (command) {
-                            case "p":
-                                isPaused = true;
-                                System.out.println("[System] Paused");
-                                CreateLogFile.getInstance().log("[System] Paused");
-                                CreateLogFile.getInstance().flush();
-                                break;
-                                
-                            case "r":
-                                isPaused = false;
-                                System.out.println("[System] Repaired");
-                                CreateLogFile.getInstance().log("[System] Repaired");
-                                CreateLogFile.getInstance().flush();
-                                break;
-                                
-                            case "q":
-                                isRunning = false;
-                                System.out.println("[System] Exiting...");
-                                CreateLogFile.getInstance().log("[System] Exiting...");
-                                CreateLogFile.getInstance().flush();
-                                break;
-                                
-                            default:
-                                if (command.startsWith("s ")) {
-                                    try {
-                                        double newSpeed = Double.parseDouble(command.substring(2).trim());
-                                        if (newSpeed > 0) {
-                                            speedMultiplier = newSpeed;
-                                            System.out.printf("[系统] 速度已调整为 %.1fx%n", speedMultiplier);
-                                        }
-                                    } catch (Exception e) {
-                                        System.out.println("[错误] 格式错误，请使用: s 2.0");
-                                    }
-                                }
-                                break;
-                        }
-                    }
-                } catch (Exception e) {
-                    // 忽略Scanner异常
-                }
-            }
-        });
-        
-        listenerThread.setDaemon(true);
-        listenerThread.start();
+    public static boolean saveSnapshot(String filePath) {
+        return world.saveSnapshot(filePath);
+    }
+
+    /**
+     * 读取二进制存档(内存映射)，恢复世界状态和市民列
+     */
+    public static boolean loadSnapshot(String filePath) {
+        return world.loadSnapshot(filePath);
     }
+
+    /**
+     * 打开二进制事件日志，失败时只记录错误，模拟照常运行
+     */
+    public static void openEventJournal() {
+        world.openEventJournal();
+    }
+
+    /**
+     * 记录一个二进制事件(事件日志未打开时忽略)，可在市民更新的工作线程中调用
+     */
+    public static void recordEvent(long tick, int citizenId, EventJournal.EventType type, double value, long extra) {
+        world.recordEvent(tick, citizenId, type, value, extra);
+    }
+
     //将路径换成字符串传入
     public static String readFileString(String filePath) throws IOException {
-        return new String(Files.readAllBytes(Paths.get("Profiles/WorldEnviroment.json")));
+        return new String(Files.readAllBytes(Paths.get(filePath)));
     }
 
     public static void resetSimulation() {
-        isRunning = false;
-        isPaused = false;
-        tickCount.set(0);
+        engine.stop();
+        engine.resume();
+        world.reset();
         // 其他重置...
     }
     public static void uiStartSimulation() {
-        if (!isRunning) {
-            isRunning = true;
-            isPaused = false;
-            speedMultiplier = 1.0;
-            System.out.println("[WorldEnviroment]Staring from UI" + speedMultiplier + "x");
-            CreateLogFile.getInstance().log("[WorldEnviroment]Staring from UI" + speedMultiplier + "x");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
-            CreateLogFile.getInstance().flush();
+        if (!engine.isRunning()) {
+            engine.start();
+            engine.setSpeedMultiplier(1.0);
+            System.out.println("[WorldEnviroment]Staring from UI" + engine.getSpeedMultiplier() + "x");
+            LOG.log("[WorldEnviroment]Staring from UI%sx", engine.getSpeedMultiplier());
         } else {
             System.out.println("[WorldEnviroment] already running");
-            CreateLogFile.getInstance().log("[WorldEnviroment] already running");
-            CreateLogFile.getInstance().setLogLevel(CreateLogFile.LogLevel.INFO);
-            CreateLogFile.getInstance().flush();
+            LOG.log("[WorldEnviroment] already running");
         }
 
     }
@@ -261,26 +252,48 @@ public class WorldEnviroment {
      * 获取当前Tick数
      */
     public static long getTickCount() {
-        return tickCount.get();
+        return world.getTickCount();
     }
     
     /**
      * 获取当前季节
      */
     public static String getCurrentSeason() {
-        return SEASONS[currentSeason];
+        return world.getSeasons().getSeasonName();
     }
+    
     /**
-     * 获取当前季节索引
+     * 设置世界种子，重建所有随机数流
      */
-    private static int getCurrentSeasonIndex() {
-        return currentSeason;
+    public static void setWorldSeed(long seed) {
+        world.setWorldSeed(seed);
     }
-    
+
+    /**
+     * 获取随机数流，市民更新逻辑通过它按 (市民ID, 子系统, Tick) 取随机数
+     */
+    public static RandomStreams getRandomStreams() {
+        return world.getRandomStreams();
+    }
+
+    /**
+     * 注册市民更新逻辑，每个Tick在线程池上按块并行执行
+     */
+    public static void setCitizenUpdater(CitizenUpdater updater) {
+        world.setCitizenUpdater(updater);
+    }
+
+    /**
+     * 获取市民列式存储
+     */
+    public static CitizenStore getCitizenStore() {
+        return world.getCitizenStore();
+    }
+
     /**
      * 获取速度倍数
      */
     public static double getSpeedMultiplier() {
-        return speedMultiplier;
+        return engine.getSpeedMultiplier();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,268 @@
+package Simulation;
+
+import TimeControl.TickEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+多世界批量运行器(Multi-world batch runner)
+
+在一个进程中同时运行多个互相独立的 World(参数扫描时省去每个城市的JVM启动和JIT预热)：
+1. 所有世界共用一个 ForkJoinPool，市民更新阶段也在同一个线程池上并行；
+2. 每个世界按 sliceTicks 个Tick一片执行，一片结束后重新排到队尾，世界之间轮流推进
+   (跳跃模式下，片开头可以一次推进的空闲Tick不计入 sliceTicks，不能跳过的世界仍按 sliceTicks 轮流)；
+3. 单个世界抛出异常只会结束该世界，其余世界继续运行；
+4. 每个世界分别统计Tick数、占用时间和吞吐量，用 report() 查看。
+ */
+public class WorldRunner {
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(WorldRunner.class);
+    private static final long DEFAULT_SLICE_TICKS = 1000;
+
+    // ==================== 成员变量 ====================
+    private final ForkJoinPool pool;
+    private final List<WorldMetrics> worlds = new CopyOnWriteArrayList<>();
+    private volatile long sliceTicks = DEFAULT_SLICE_TICKS;
+    private volatile boolean stopped = false;
+
+    public WorldRunner(int threads) {
+        // asyncMode：重新排队的时间片按先进先出执行，各世界轮流推进
+        this.pool = new ForkJoinPool(Math.max(1, threads),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    // ==================== 世界管理 ====================
+
+    /**
+     * 创建一个在共享线程池上运行的世界并加入运行器
+     */
+    public World createWorld(WorldConfig config) {
+        World world = new World(config, pool);
+        worlds.add(new WorldMetrics(world));
+        return world;
+    }
+
+    public List<World> getWorlds() {
+        List<World> result = new ArrayList<>();
+        for (WorldMetrics metrics : worlds) {
+            result.add(metrics.world);
+        }
+        return result;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * 每个时间片执行的Tick数(越小世界之间越公平，调度开销越大)
+     */
+    public void setSliceTicks(long sliceTicks) {
+        this.sliceTicks = Math.max(1, sliceTicks);
+    }
+
+    // ==================== 执行方法 ====================
+
+    /**
+     * 所有世界各执行 ticks 个Tick，全部完成(或 stop() 被调用)后返回
+     */
+    public void run(long ticks) throws InterruptedException {
+        stopped = false;
+        List<WorldMetrics> current = new ArrayList<>(worlds);
+        CountDownLatch done = new CountDownLatch(current.size());
+        for (WorldMetrics metrics : current) {
+            metrics.world.getEngine().start();
+        }
+        // 第一批时间片也从工作线程提交：与重新排队的时间片进入同一个先进先出队列，
+        // 否则外部提交的世界要等第一个世界的本地队列全部执行完才轮到
+        pool.execute(() -> {
+            for (WorldMetrics metrics : current) {
+                pool.execute(new Slice(metrics, ticks, done));
+            }
+        });
+        done.await();
+    }
+
+    /**
+     * 在当前时间片结束后停止所有世界
+     */
+    public void stop() {
+        stopped = true;
+        for (WorldMetrics metrics : worlds) {
+            metrics.world.getEngine().stop();
+        }
+    }
+
+    /**
+     * 释放所有世界的资源并关闭线程池
+     */
+    public void shutdown() {
+        stop();
+        for (WorldMetrics metrics : worlds) {
+            metrics.world.shutdown();
+        }
+        pool.shutdown();
+    }
+
+    // ==================== 时间片任务 ====================
+    private final class Slice implements Runnable {
+        private final WorldMetrics metrics;
+        private final CountDownLatch done;
+        private long remaining;
+
+        Slice(WorldMetrics metrics, long ticks, CountDownLatch done) {
+            this.metrics = metrics;
+            this.remaining = ticks;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            TickEngine engine = metrics.world.getEngine();
+            if (stopped || remaining <= 0) {
+                engine.stop();
+                done.countDown();
+                return;
+            }
+            long start = System.nanoTime();
+            if (metrics.firstStartNanos == 0) {
+                metrics.firstStartNanos = start;
+            }
+            try {
+                long executed = engine.runTicks(Math.min(remaining, sliceBudget(engine)));
+                long end = System.nanoTime();
+                metrics.record(executed, end - start, end);
+                remaining -= executed;
+                if (executed == 0) {
+                    remaining = 0; // 引擎被单独停止
+                }
+            } catch (Throwable e) {
+                long end = System.nanoTime();
+                metrics.record(0, end - start, end);
+                metrics.failure = e;
+                engine.stop();
+                LOG.log("[WorldRunner]World " + metrics.world.getName() + " failed at tick "
+                    + engine.getTickCount(), e);
+                done.countDown();
+                return;
+            }
+            pool.execute(this);
+        }
+    }
+
+    // 一片最多执行 sliceTicks 个Tick；跳跃模式下再加上开头可以由 advance 一次推进的空闲Tick
+    private long sliceBudget(TickEngine engine) {
+        long slice = sliceTicks;
+        long idle = engine.nextExecutedTick() - engine.getTickCount() - 1;
+        return idle >= Long.MAX_VALUE - slice ? Long.MAX_VALUE : slice + idle;
+    }
+
+    // ==================== 统计 ====================
+
+    /**
+     * 获取每个世界的吞吐量统计
+     */
+    public List<WorldMetrics> getMetrics() {
+        return new ArrayList<>(worlds);
+    }
+
+    /**
+     * 吞吐量报告：世界 | Tick数 | 占用时间 | Tick/秒(按占用时间) | 市民更新/秒 | 状态
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %12s %10s %14s %16s  %s%n",
+            "World", "Ticks", "Busy(ms)", "Ticks/s", "Citizens/s", "Status"));
+        long totalTicks = 0;
+        long totalCitizens = 0;
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = 0;
+        for (WorldMetrics metrics : worlds) {
+            report.append(String.format("%-20s %12d %10.1f %14.0f %16.0f  %s%n",
+                metrics.world.getName(), metrics.ticks, metrics.busyNanos / 1e6,
+                metrics.getTicksPerSecond(), metrics.getCitizensPerSecond(),
+                metrics.failure != null ? "FAILED: " + metrics.failure : "ok"));
+            totalTicks += metrics.ticks;
+            totalCitizens += metrics.getCitizensUpdated();
+            if (metrics.firstStartNanos != 0) {
+                firstStart = Math.min(firstStart, metrics.firstStartNanos);
+                lastEnd = Math.max(lastEnd, metrics.lastEndNanos);
+            }
+        }
+        double wallSeconds = lastEnd > firstStart ? (lastEnd - firstStart) / 1e9 : 0;
+        report.append(String.format("Total: %d worlds, %d ticks in %.2f s (%.0f ticks/s, %.0f citizens/s, %d threads)%n",
+            worlds.size(), totalTicks, wallSeconds,
+            wallSeconds > 0 ? totalTicks / wallSeconds : 0,
+            wallSeconds > 0 ? totalCitizens / wallSeconds : 0,
+            pool.getParallelism()));
+        return report.toString();
+    }
+
+    /**
+     * 单个世界的吞吐量统计，字段只由正在执行该世界时间片的线程写入
+     */
+    public static final class WorldMetrics {
+        private final World world;
+        private final long citizensAtStart;
+        private final long advancedAtStart;
+        private volatile long ticks;
+        private volatile long busyNanos;
+        private volatile long firstStartNanos;
+        private volatile long lastEndNanos;
+        private volatile Throwable failure;
+
+        WorldMetrics(World world) {
+            this.world = world;
+            this.citizensAtStart = world.getCitizenPhase().getUpdatedCount();
+            this.advancedAtStart = world.getCitizenPhase().getAdvancedCount();
+        }
+
+        void record(long executed, long nanos, long endNanos) {
+            ticks += executed;
+            busyNanos += nanos;
+            lastEndNanos = endNanos;
+        }
+
+        public World getWorld() {
+            return world;
+        }
+
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * 获取执行该世界时间片的累计耗时(纳秒，不含排队等待)
+         */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        public long getCitizensUpdated() {
+            return world.getCitizenPhase().getUpdatedCount() - citizensAtStart;
+        }
+
+        /**
+         * 获取跳跃推进覆盖的 市民数 × Tick数(不计入 Citizens/s)
+         */
+        public long getCitizensAdvanced() {
+            return world.getCitizenPhase().getAdvancedCount() - advancedAtStart;
+        }
+
+        public double getTicksPerSecond() {
+            return busyNanos > 0 ? ticks * 1e9 / busyNanos : 0;
+        }
+
+        public double getCitizensPerSecond() {
+            return busyNanos > 0 ? getCitizensUpdated() * 1e9 / busyNanos : 0;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+}
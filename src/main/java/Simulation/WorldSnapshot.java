@@ -0,0 +1,231 @@
+package Simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+二进制存档格式(Binary world snapshot)
+
+文件布局(小端序)：
+  头部   magic "FTCS" | version | tickCount | currentSeason | seasonTick | cityAttractiveness | worldSeed | citizenCount | traitCount
+  性别   byte[citizenCount]，补齐到4字节
+  分数列 float[citizenCount] * traitCount，顺序同 CitizenStore.Trait
+  姓名   (int 字节长度 + UTF-8) * citizenCount
+读取时用 FileChannel 内存映射，每列一次批量复制到 CitizenStore，不经过 JSON 解析。
+写入先写临时文件再原子替换，写到一半崩溃不会损坏旧存档。
+ */
+public class WorldSnapshot {
+    // ==================== 常量定义 ====================
+    public static final int MAGIC = 0x53435446; // "FTCS"
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8 + 4 + 8 + 4 + 4;
+    private static final int IO_BUFFER_SIZE = 1 << 20;
+    private static final CitizenStore.Trait[] TRAITS = CitizenStore.Trait.values();
+
+    // ==================== 世界状态 ====================
+    private final long tickCount;
+    private final int currentSeason;
+    private final long seasonTick;
+    private final int cityAttractiveness;
+    private final long worldSeed;
+
+    public WorldSnapshot(long tickCount, int currentSeason, long seasonTick, int cityAttractiveness, long worldSeed) {
+        this.tickCount = tickCount;
+        this.currentSeason = currentSeason;
+        this.seasonTick = seasonTick;
+        this.cityAttractiveness = cityAttractiveness;
+        this.worldSeed = worldSeed;
+    }
+
+    public long getTickCount() { return tickCount; }
+    public int getCurrentSeason() { return currentSeason; }
+    public long getSeasonTick() { return seasonTick; }
+    public int getCityAttractiveness() { return cityAttractiveness; }
+    public long getWorldSeed() { return worldSeed; }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 把世界状态和全部市民写入存档文件
+     */
+    public static void write(Path path, WorldSnapshot world, CitizenStore store) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int count = store.size();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION)
+                  .putLong(world.tickCount).putInt(world.currentSeason).putLong(world.seasonTick)
+                  .putInt(world.cityAttractiveness).putLong(world.worldSeed)
+                  .putInt(count).putInt(TRAITS.length);
+
+            for (int id = 0; id < count; id++) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.put(store.getGender(id));
+            }
+            for (int pad = padding(count); pad > 0; pad--) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.put((byte) 0);
+            }
+
+            for (CitizenStore.Trait trait : TRAITS) {
+                float[] column = store.column(trait);
+                for (int offset = 0; offset < count; ) {
+                    if (buffer.remaining() < Float.BYTES) {
+                        drain(channel, buffer);
+                    }
+                    int length = Math.min(count - offset, buffer.remaining() / Float.BYTES);
+                    buffer.asFloatBuffer().put(column, offset, length);
+                    buffer.position(buffer.position() + length * Float.BYTES);
+                    offset += length;
+                }
+            }
+
+            for (int id = 0; id < count; id++) {
+                String name = store.getName(id);
+                byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(bytes.length);
+                if (bytes.length > buffer.remaining()) {
+                    // 超长姓名直接写出
+                    drain(channel, buffer);
+                    channel.write(ByteBuffer.wrap(bytes));
+                } else {
+                    buffer.put(bytes);
+                }
+            }
+            drain(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int padding(int count) {
+        return (4 - (count & 3)) & 3;
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 读取存档：市民写入 store(原有市民被清空)，返回世界状态；存档损坏时抛出 IOException
+     */
+    public static WorldSnapshot read(Path path, CitizenStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, path, store);
+        } catch (RuntimeException e) {
+            // 校验之外的损坏(映射失败、缓冲越界等)也按读取失败处理，调用方只需要处理 IOException
+            throw new IOException("Corrupt snapshot " + path + ": " + e, e);
+        }
+    }
+
+    private static WorldSnapshot read(FileChannel channel, Path path, CitizenStore store) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE) {
+            throw new IOException("Snapshot too small: " + path);
+        }
+        ByteBuffer header = map(channel, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a FunTamyCity snapshot: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " (expected " + VERSION + ")");
+        }
+        WorldSnapshot world = new WorldSnapshot(header.getLong(), header.getInt(), header.getLong(),
+            header.getInt(), header.getLong());
+        int count = header.getInt();
+        int traitCount = header.getInt();
+        if (world.currentSeason < 0 || world.currentSeason >= SeasonSystem.SEASONS.length) {
+            throw new IOException("Corrupt snapshot " + path + ": season " + world.currentSeason);
+        }
+        if (count < 0 || traitCount < 0) {
+            throw new IOException("Corrupt snapshot " + path + ": " + count + " citizens, " + traitCount + " traits");
+        }
+
+        // 先确认各部分都在文件范围内，再清空 store 和分配空间
+        long columnSize = (long) count * Float.BYTES;
+        long columnsStart = HEADER_SIZE + (long) count + padding(count);
+        if (columnsStart > fileSize || (columnSize > 0 && traitCount > (fileSize - columnsStart) / columnSize)) {
+            throw new IOException("Snapshot truncated: " + path);
+        }
+        long namesStart = columnsStart + columnSize * traitCount;
+        if (fileSize - namesStart < (long) count * Integer.BYTES) {
+            throw new IOException("Snapshot truncated: " + path);
+        }
+
+        store.clear();
+        store.allocate(count);
+
+        ByteBuffer genders = map(channel, HEADER_SIZE, count);
+
+        // 逐列映射并批量复制，单列不超过2GB，总文件大小不受限制
+        long position = columnsStart;
+        for (int t = 0; t < traitCount; t++) {
+            ByteBuffer column = map(channel, position, columnSize);
+            if (t < TRAITS.length) {
+                column.asFloatBuffer().get(store.column(TRAITS[t]), 0, count);
+            }
+            position += columnSize;
+        }
+        // 旧版本存档中没有的分数列置0
+        for (int t = traitCount; t < TRAITS.length; t++) {
+            Arrays.fill(store.column(TRAITS[t]), 0, count, 0f);
+        }
+
+        ByteBuffer names = map(channel, namesStart, fileSize - namesStart);
+        byte[] scratch = new byte[64];
+        for (int id = 0; id < count; id++) {
+            if (names.remaining() < Integer.BYTES) {
+                throw new IOException("Snapshot truncated: " + path);
+            }
+            int length = names.getInt();
+            if (length < 0 || length > names.remaining()) {
+                throw new IOException("Corrupt snapshot " + path + ": name of citizen " + id + " has " + length + " bytes");
+            }
+            if (length > scratch.length) {
+                scratch = new byte[length];
+            }
+            names.get(scratch, 0, length);
+            store.put(id, new String(scratch, 0, length, StandardCharsets.UTF_8), genders.get(id));
+        }
+        return world;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large to map: " + size + " bytes");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
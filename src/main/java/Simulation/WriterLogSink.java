@@ -0,0 +1,78 @@
+package Simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/*
+基于 Writer 的日志输出端(默认)
+
+编码后的字节经过计数流再进入缓冲流，文件大小按实际字节计算(中文 UTF-8 每字3字节)；
+编码器内部最多还有几KB未计数。
+ */
+final class WriterLogSink implements LogSink {
+    private static final int BUFFER_SIZE = 65536;
+
+    private final CountingOutputStream counter;
+    private final Writer writer;
+    private char[] chars = new char[BUFFER_SIZE];
+
+    WriterLogSink(File file) throws IOException {
+        this.counter = new CountingOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file, true), BUFFER_SIZE), file.length());
+        this.writer = new OutputStreamWriter(counter, Charset.defaultCharset());
+    }
+
+    @Override
+    public void write(StringBuilder logs) throws IOException {
+        int length = logs.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        logs.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public long size() {
+        return counter.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // 统计写入的字节数
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out, long initial) {
+            super(out);
+            this.count = initial;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package TimeControl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/*
+Tick边界命令队列(Tick-boundary command queue)
+
+控制台、套接字、命令文件等任意线程通过 submit 提交命令，TickEngine 在两个Tick之间
+(以及暂停期间)按提交顺序执行，命令修改的状态不会在一个Tick的中途变化。
+单个命令抛出的异常交给 errorHandler，不会中断Tick循环，也不会影响后面的命令。
+ */
+public class CommandQueue {
+    // ==================== 成员变量 ====================
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private volatile Consumer<RuntimeException> errorHandler =
+        e -> System.err.println("CommandError:" + e);
+
+    // ==================== 提交(任意线程) ====================
+
+    public void submit(Runnable command) {
+        commands.add(command);
+    }
+
+    /**
+     * 设置命令异常的处理方式(默认输出到标准错误流)
+     */
+    public void setErrorHandler(Consumer<RuntimeException> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // ==================== 执行(Tick线程) ====================
+
+    /**
+     * 按提交顺序执行所有排队的命令，返回执行数量
+     */
+    public int drain() {
+        int count = 0;
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                errorHandler.accept(e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+}
@@ -0,0 +1,219 @@
+package TimeControl;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/*
+定时事件调度器(Priority-queue event scheduler)
+
+按Tick数排序的二叉堆，作为 TickSystem 注册到 TickEngine("events")：
+1. 没有到期事件的Tick只比较一次 nextDue，季节切换、存档、发薪日等低频逻辑不再每个Tick轮询；
+2. 到期事件按 (Tick, 提交顺序) 依次执行，action 收到实际执行时的Tick数；
+3. 周期事件在执行前重新入堆，Tick数跳跃(读取存档)时跳过错过的周期，不会连续补执行；
+4. 只能在Tick线程中调度或取消(其他线程通过 TickEngine.submit 提交)。
+ */
+public class EventScheduler implements TickSystem {
+    // ==================== 成员变量 ====================
+    private Event[] heap = new Event[16];
+    private int size = 0;
+    private long sequence = 0;
+    private long nextDue = Long.MAX_VALUE;
+    private long firedCount = 0;
+
+    // ==================== 事件 ====================
+    public final class Event {
+        private long tick;
+        private final long period;
+        private final long order;
+        private final LongConsumer action;
+        private int heapIndex = -1;
+
+        private Event(long tick, long period, LongConsumer action) {
+            this.tick = tick;
+            this.period = period;
+            this.order = sequence++;
+            this.action = action;
+        }
+
+        /**
+         * 取消事件(已执行的一次性事件取消无效果)
+         */
+        public void cancel() {
+            if (heapIndex >= 0) {
+                remove(this);
+            }
+        }
+
+        /**
+         * 下一次执行的Tick数
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        public long getPeriod() {
+            return period;
+        }
+
+        public boolean isScheduled() {
+            return heapIndex >= 0;
+        }
+    }
+
+    // ==================== 调度方法 ====================
+
+    /**
+     * 在指定Tick执行一次
+     */
+    public Event schedule(long tick, LongConsumer action) {
+        return add(new Event(tick, 0, action));
+    }
+
+    /**
+     * 从 firstTick 开始每 period 个Tick执行一次
+     */
+    public Event scheduleRepeating(long firstTick, long period, LongConsumer action) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than zero, but was " + period);
+        }
+        return add(new Event(firstTick, period, action));
+    }
+
+    /**
+     * 取消所有事件
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        nextDue = Long.MAX_VALUE;
+    }
+
+    // ==================== 执行(Tick线程) ====================
+
+    @Override
+    public String getName() {
+        return "events";
+    }
+
+    @Override
+    public void tick(long tick) {
+        if (tick < nextDue) {
+            return;
+        }
+        while (size > 0 && heap[0].tick <= tick) {
+            Event event = heap[0];
+            removeAt(0);
+            if (event.period > 0) {
+                // 跳过错过的周期，下一次落在 tick 之后
+                event.tick += ((tick - event.tick) / event.period + 1) * event.period;
+                add(event);
+            }
+            firedCount++;
+            event.action.accept(tick);
+        }
+        nextDue = size > 0 ? heap[0].tick : Long.MAX_VALUE;
+    }
+
+    @Override
+    public long nextEventTick(long tick) {
+        return Math.max(nextDue, tick + 1);
+    }
+
+    /**
+     * 跳过的Tick中没有到期事件，不需要执行任何逻辑
+     */
+    @Override
+    public void advance(long from, long to) {
+    }
+
+    // ==================== 查询方法 ====================
+
+    /**
+     * 下一个事件的Tick数，没有事件时返回 Long.MAX_VALUE
+     */
+    public long getNextDueTick() {
+        return nextDue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getFiredCount() {
+        return firedCount;
+    }
+
+    // ==================== 二叉堆 ====================
+
+    private Event add(Event event) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = event;
+        event.heapIndex = size;
+        siftUp(size++);
+        nextDue = heap[0].tick;
+        return event;
+    }
+
+    private void remove(Event event) {
+        removeAt(event.heapIndex);
+        nextDue = size > 0 ? heap[0].tick : Long.MAX_VALUE;
+    }
+
+    private void removeAt(int index) {
+        Event removed = heap[index];
+        removed.heapIndex = -1;
+        int last = --size;
+        if (index != last) {
+            heap[index] = heap[last];
+            heap[index].heapIndex = index;
+            heap[last] = null;
+            siftDown(index);
+            siftUp(index);
+        } else {
+            heap[last] = null;
+        }
+    }
+
+    private static boolean before(Event a, Event b) {
+        return a.tick < b.tick || (a.tick == b.tick && a.order < b.order);
+    }
+
+    private void siftUp(int index) {
+        Event event = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(event, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].heapIndex = index;
+            index = parent;
+        }
+        heap[index] = event;
+        event.heapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Event event = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], event)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = event;
+        event.heapIndex = index;
+    }
+}
@@ -0,0 +1,148 @@
+package TimeControl;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/*
+对数线性直方图(Log-linear latency histogram)
+
+与 HdrHistogram 相同的分桶方式：0~63 每个值一个桶，之后每个2的幂区间再均分为32个桶，
+相对误差不超过 1/32(约3%)，覆盖 0 ~ Long.MAX_VALUE 纳秒只需要1888个计数。
+record 只做一次数组自增，不分配对象、不加锁；只允许一个线程写入(Tick线程)。
+写入前后各递增一次版本号(seqlock)，其他线程通过 copy() 读取：版本号为奇数或复制期间发生变化时重试，
+重试 MAX_COPY_ATTEMPTS 次仍不一致(写入极其频繁)时返回最后一次的近似副本。
+ */
+public class LatencyHistogram {
+    // ==================== 常量定义 ====================
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;       // 32
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;          // 64
+    private static final int BUCKET_COUNT = (62 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + LINEAR_LIMIT; // 1888
+    private static final int MAX_COPY_ATTEMPTS = 16;
+
+    // ==================== 成员变量 ====================
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+    private volatile long version;  // 奇数表示正在写入
+
+    // ==================== 记录(单个写入线程) ====================
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        long v = beginWrite();
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+        version = v + 2;
+    }
+
+    public void reset() {
+        long v = beginWrite();
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+        version = v + 2;
+    }
+
+    // 版本号置为奇数，之后的普通写入不能重排到它之前
+    private long beginWrite() {
+        long v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+        return v;
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶内的最大值(报告按上界取值，与 HdrHistogram 的 highestEquivalentValue 相同)
+     */
+    private static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long sub = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    // ==================== 查询方法 ====================
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        return totalCount > 0 ? (double) totalValue / totalCount : 0;
+    }
+
+    /**
+     * 获取百分位数(0~100)对应的值，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount;
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * 复制当前计数(用于计算两次查询之间的区间分布)，可以在写入线程之外调用
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        for (int attempt = 0; attempt < MAX_COPY_ATTEMPTS; attempt++) {
+            long before = version;
+            System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+            copy.totalCount = totalCount;
+            copy.totalValue = totalValue;
+            copy.maxValue = maxValue;
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && version == before) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        return copy;
+    }
+
+    /**
+     * 减去更早的副本，得到两次复制之间记录的分布(最大值保留为累计最大值)
+     */
+    public void subtract(LatencyHistogram earlier) {
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            count += counts[i];
+        }
+        totalCount = count;
+        totalValue = Math.max(0, totalValue - earlier.totalValue);
+    }
+}
@@ -0,0 +1,354 @@
+package TimeControl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Tick引擎(Pluggable tick core)
+
+取代原先 TimeControl 与 Simulation 两份静态的 WorldEnviroment：引擎是一个普通对象，
+持有自己的Tick计数、运行/暂停状态和 TickScheduler，子系统通过 register 插入。
+每个Tick按注册顺序执行所有子系统，并记录整个Tick和每个子系统的耗时分布(LatencyHistogram)，
+用 timingReport() 查看哪个子系统最耗时。一个进程中可以同时存在多个引擎(多个世界)。
+控制操作通过 submit 进入命令队列，在每个Tick开始前(暂停时也会)执行，不会与子系统并发修改状态。
+跳跃模式(setSkipAhead)下 runTicks 不再逐Tick执行：没有子系统需要离散执行的Tick由 advance 一次推进，
+夜间、发薪日之间等空闲时段直接跳到下一个事件。
+ */
+public final class TickEngine {
+    // ==================== 成员变量 ====================
+    private final TickScheduler scheduler = new TickScheduler(this::executeTick);
+    private final CommandQueue commands = new CommandQueue();
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private volatile SystemSlot[] slots = new SystemSlot[0];
+    private volatile long tickCount = 0;
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private volatile double speedMultiplier = 1.0;
+    private volatile boolean timingEnabled = true;
+    private volatile boolean skipAhead = false;
+    private volatile long skippedTicks = 0;
+
+    // ==================== 子系统 ====================
+
+    /**
+     * 注册子系统，按注册顺序执行；运行中注册的子系统从下一个Tick开始执行
+     */
+    public synchronized void register(TickSystem system) {
+        SystemSlot[] current = slots;
+        SystemSlot[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = new SystemSlot(system);
+        slots = next;
+    }
+
+    /**
+     * 获取已注册的子系统
+     */
+    public List<TickSystem> getSystems() {
+        List<TickSystem> systems = new ArrayList<>();
+        for (SystemSlot slot : slots) {
+            systems.add(slot.system);
+        }
+        return systems;
+    }
+
+    // ==================== 执行方法 ====================
+
+    /**
+     * 执行单个Tick：先执行排队的命令，Tick数加1，依次执行所有子系统
+     */
+    public void executeTick() {
+        if (!timingEnabled) {
+            commands.drain();
+            long tick = tickCount + 1;
+            tickCount = tick;
+            for (SystemSlot slot : slots) {
+                slot.system.tick(tick);
+            }
+            return;
+        }
+        long tickStart = System.nanoTime();
+        commands.drain();
+        long tick = tickCount + 1;
+        tickCount = tick;
+        long start = System.nanoTime();
+        for (SystemSlot slot : slots) {
+            slot.system.tick(tick);
+            long end = System.nanoTime();
+            slot.record(end - start);
+            start = end;
+        }
+        tickLatency.record(start - tickStart);
+    }
+
+    /**
+     * 主循环：按 TickScheduler 的节奏执行，直到 stop() 被调用
+     */
+    public void run() {
+        running = true;
+        scheduler.run(() -> running, this::pollPaused);
+    }
+
+    /**
+     * 暂停期间Tick不执行，由调度器的暂停轮询处理命令(例如恢复、退出)
+     */
+    private boolean pollPaused() {
+        if (paused) {
+            commands.drain();
+        }
+        return paused;
+    }
+
+    /**
+     * 提交一个控制命令，在下一个Tick边界由Tick线程执行
+     */
+    public void submit(Runnable command) {
+        commands.submit(command);
+    }
+
+    /**
+     * 不节流地执行固定数量的Tick，返回实际执行数(中途 stop() 时提前返回)
+     */
+    public long runTicks(long ticks) {
+        running = true;
+        if (skipAhead) {
+            return runSkipping(ticks);
+        }
+        return scheduler.runTicks(ticks, () -> running);
+    }
+
+    /**
+     * 跳跃执行：只在有子系统需要(或有排队的命令)的Tick调用 executeTick，其余Tick由 advance 一次推进
+     */
+    private long runSkipping(long ticks) {
+        long first = tickCount;
+        long target = first + ticks;
+        while (running && tickCount < target) {
+            long tick = tickCount;
+            SystemSlot[] current = slots;
+            long next = nextEventTick(tick, current);
+            if (next <= tick + 1) {
+                executeTick();
+                continue;
+            }
+            long to = Math.min(next - 1, target);
+            long start = System.nanoTime();
+            for (SystemSlot slot : current) {
+                slot.system.advance(tick, to);
+                if (timingEnabled) {
+                    long end = System.nanoTime();
+                    slot.record(end - start);
+                    start = end;
+                }
+            }
+            tickCount = to;
+            skippedTicks += to - tick;
+        }
+        return tickCount - first;
+    }
+
+    // 所有子系统(和排队的命令)中下一个需要 executeTick 的Tick数
+    private long nextEventTick(long tick, SystemSlot[] current) {
+        long next = commands.isEmpty() ? Long.MAX_VALUE : tick + 1;
+        for (SystemSlot slot : current) {
+            next = Math.min(next, slot.system.nextEventTick(tick));
+        }
+        return next;
+    }
+
+    /**
+     * 跳跃模式下一个必须执行 executeTick 的Tick数，此前的Tick可以由 advance 一次推进；
+     * 不在跳跃模式时总是下一个Tick
+     */
+    public long nextExecutedTick() {
+        long tick = tickCount;
+        if (!skipAhead) {
+            return tick + 1;
+        }
+        return Math.max(nextEventTick(tick, slots), tick + 1);
+    }
+
+    // ==================== 控制方法 ====================
+
+    /**
+     * 标记为运行中(不进入主循环)
+     */
+    public void start() {
+        running = true;
+        paused = false;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    public void setSpeedMultiplier(double speedMultiplier) {
+        scheduler.setSpeedMultiplier(speedMultiplier);
+        this.speedMultiplier = speedMultiplier;
+    }
+
+    public void setHeadless(boolean headless) {
+        scheduler.setHeadless(headless);
+    }
+
+    /**
+     * 设置当前Tick数(读取存档时恢复)，只能在Tick线程或引擎停止时调用
+     */
+    public void setTickCount(long tickCount) {
+        this.tickCount = tickCount;
+    }
+
+    /**
+     * 开关跳跃模式(只影响 runTicks，实时主循环仍逐Tick执行)
+     */
+    public void setSkipAhead(boolean skipAhead) {
+        this.skipAhead = skipAhead;
+    }
+
+    /**
+     * 开关子系统计时(关闭后每个Tick少两次 System.nanoTime 调用)
+     */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    // ==================== 查询方法 ====================
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isHeadless() {
+        return scheduler.isHeadless();
+    }
+
+    public boolean isSkipAhead() {
+        return skipAhead;
+    }
+
+    /**
+     * 跳跃模式下由 advance 推进、没有执行 executeTick 的Tick数
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public double getSpeedMultiplier() {
+        return speedMultiplier;
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public CommandQueue getCommands() {
+        return commands;
+    }
+
+    /**
+     * 获取整个Tick(含命令处理)的耗时分布(纳秒)
+     */
+    public LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+
+    /**
+     * 获取某个子系统的耗时分布(纳秒)，未注册时返回 null
+     */
+    public LatencyHistogram getSystemLatency(String name) {
+        for (SystemSlot slot : slots) {
+            if (slot.system.getName().equals(name)) {
+                return slot.latency;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取某个子系统的累计耗时(纳秒)，未注册时返回 -1
+     */
+    public long getSystemNanos(String name) {
+        for (SystemSlot slot : slots) {
+            if (slot.system.getName().equals(name)) {
+                return slot.totalNanos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 清空子系统耗时统计。统计字段由Tick线程无锁写入，只能在Tick线程(例如通过 submit)或引擎停止时调用
+     */
+    public void resetTimings() {
+        for (SystemSlot slot : slots) {
+            slot.totalNanos = 0;
+            slot.calls = 0;
+            slot.maxNanos = 0;
+            slot.latency.reset();
+        }
+        tickLatency.reset();
+    }
+
+    /**
+     * 子系统耗时报告：名称 | 累计耗时 | 占比 | 平均每次 | 99%分位 | 最大单次(跳跃推进按一次计)
+     */
+    public String timingReport() {
+        SystemSlot[] current = slots;
+        long total = 0;
+        for (SystemSlot slot : current) {
+            total += slot.totalNanos;
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-16s %12s %7s %12s %12s %12s%n", "System", "Total(ms)", "Share", "Mean(us)", "P99(us)", "Max(us)"));
+        for (SystemSlot slot : current) {
+            long calls = Math.max(1, slot.calls);
+            report.append(String.format("%-16s %12.1f %6.1f%% %12.3f %12.1f %12.1f%n",
+                slot.system.getName(),
+                slot.totalNanos / 1e6,
+                total > 0 ? slot.totalNanos * 100.0 / total : 0.0,
+                slot.totalNanos / 1e3 / calls,
+                slot.latency.copy().getValueAtPercentile(99) / 1e3,
+                slot.maxNanos / 1e3));
+        }
+        return report.toString();
+    }
+
+    // ==================== 子系统槽位 ====================
+    // 统计字段只由Tick线程写入，其他线程读到的是近似值
+    private static final class SystemSlot {
+        final TickSystem system;
+        final LatencyHistogram latency = new LatencyHistogram();
+        long totalNanos;
+        long calls;
+        long maxNanos;
+
+        SystemSlot(TickSystem system) {
+            this.system = system;
+        }
+
+        void record(long nanos) {
+            latency.record(nanos);
+            totalNanos += nanos;
+            calls++;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package TimeControl;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/*
+固定步长Tick调度器(Fixed-timestep scheduler)
+
+取代原先 "执行Tick -> Thread.sleep(100 / speedMultiplier)" 的循环：
+1. 以截止时间(deadline)为基准，每个Tick的基础时长为 100ms / speedMultiplier，
+   executeTick 变慢时不会再累积漂移；
+2. 累加器(accumulator)记录"欠下"的时间，落后时在一帧内连续补执行Tick，
+   单帧补执行数量受 maxCatchUpTicks 限制，超出部分直接丢弃并计数；
+3. headless 模式下不做任何节流，Tick以最快速度执行(用于测试季节切换等长周期逻辑)。
+ */
+public class TickScheduler {
+    // ==================== 常量定义 ====================
+    public static final long BASE_TICK_NANOS = 100_000_000L; // 1倍速下每个Tick为100ms
+    private static final long PAUSE_PARK_NANOS = 100_000_000L;
+    private static final int DEFAULT_MAX_CATCH_UP_TICKS = 50;
+
+    // ==================== 成员变量 ====================
+    private final Runnable tickTask;
+    private volatile long tickNanos = BASE_TICK_NANOS;
+    private volatile boolean headless = false;
+    private volatile int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+
+    private long executedTicks = 0;
+    private long droppedTicks = 0;
+
+    public TickScheduler(Runnable tickTask) {
+        this.tickTask = tickTask;
+    }
+
+    // ==================== 配置方法 ====================
+
+    /**
+     * 设置速度倍数，每个Tick时长 = 100ms / speedMultiplier(最小1ns)
+     */
+    public void setSpeedMultiplier(double speedMultiplier) {
+        if (speedMultiplier <= 0) {
+            throw new IllegalArgumentException("speedMultiplier must be greater than zero, but was " + speedMultiplier);
+        }
+        tickNanos = Math.max(1L, (long) (BASE_TICK_NANOS / speedMultiplier));
+    }
+
+    /**
+     * 设置headless模式：不做节流，尽可能快地执行Tick
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * 设置单帧最多补执行的Tick数，落后更多时丢弃多余的时间
+     */
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        this.maxCatchUpTicks = Math.max(1, maxCatchUpTicks);
+    }
+
+    // ==================== 运行方法 ====================
+
+    /**
+     * 主循环：直到 isRunning 返回 false 为止，isPaused 为 true 时停止时间流动
+     */
+    public void run(BooleanSupplier isRunning, BooleanSupplier isPaused) {
+        long lastTime = System.nanoTime();
+        long accumulator = 0;
+
+        while (isRunning.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+            if (isPaused.getAsBoolean()) {
+                LockSupport.parkNanos(PAUSE_PARK_NANOS);
+                // 暂停期间的时间不计入累加器，恢复后不会突发补执行
+                lastTime = System.nanoTime();
+                accumulator = 0;
+                continue;
+            }
+
+            if (headless) {
+                tickTask.run();
+                executedTicks++;
+                lastTime = System.nanoTime();
+                accumulator = 0;
+                continue;
+            }
+
+            long now = System.nanoTime();
+            accumulator += now - lastTime;
+            lastTime = now;
+
+            long step = tickNanos;
+            long maxBacklog = step * maxCatchUpTicks;
+            if (accumulator > maxBacklog) {
+                // 落后太多，丢弃超出补执行上限的部分
+                droppedTicks += (accumulator - maxBacklog) / step;
+                accumulator = maxBacklog;
+            }
+
+            // 每个Tick之后检查暂停：Tick开始时执行的暂停命令从下一个Tick起生效，不会再补执行积压的Tick
+            while (accumulator >= step && isRunning.getAsBoolean() && !isPaused.getAsBoolean()) {
+                tickTask.run();
+                executedTicks++;
+                accumulator -= step;
+            }
+
+            // 休眠到下一个截止时间
+            long waitNanos = step - accumulator;
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * headless执行固定数量的Tick，返回实际执行数
+     */
+    public long runTicks(long ticks, BooleanSupplier isRunning) {
+        long executed = 0;
+        while (executed < ticks && isRunning.getAsBoolean()) {
+            tickTask.run();
+            executed++;
+        }
+        executedTicks += executed;
+        return executed;
+    }
+
+    // ==================== 查询方法 ====================
+
+    /**
+     * 获取当前每个Tick的时长(纳秒)
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * 获取调度器已执行的Tick数
+     */
+    public long getExecutedTicks() {
+        return executedTicks;
+    }
+
+    /**
+     * 获取因落后过多而丢弃的Tick数
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
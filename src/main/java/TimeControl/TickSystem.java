@@ -0,0 +1,57 @@
+package TimeControl;
+
+import java.util.function.LongConsumer;
+
+/*
+Tick子系统(Tick system plug-in)
+
+注册到 TickEngine 的子系统(定时事件、市民等)按注册顺序在每个Tick执行一次，
+引擎分别统计每个子系统的耗时。实现只会在Tick线程中被调用。
+跳跃模式(TickEngine.setSkipAhead)下，引擎询问所有子系统的 nextEventTick，
+中间没有离散事件的Tick通过 advance 一次推进；默认实现每个Tick都需要执行，不会被跳过。
+ */
+public interface TickSystem {
+
+    /**
+     * 子系统名称(用于耗时统计)
+     */
+    String getName();
+
+    /**
+     * 执行一个Tick
+     */
+    void tick(long tick);
+
+    /**
+     * 当前Tick为 tick 时，下一个必须执行 tick() 的Tick数(大于 tick)，没有时返回 Long.MAX_VALUE
+     */
+    default long nextEventTick(long tick) {
+        return tick + 1;
+    }
+
+    /**
+     * 一次推进 (from, to] 之间的Tick，这些Tick中没有本子系统的离散事件，只需推进连续状态
+     */
+    default void advance(long from, long to) {
+        for (long tick = from + 1; tick <= to; tick++) {
+            tick(tick);
+        }
+    }
+
+    /**
+     * 用名称和一个函数创建简单的子系统
+     */
+    static TickSystem of(String name, LongConsumer action) {
+        return new TickSystem() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void tick(long tick) {
+                action.accept(tick);
+            }
+        };
+    }
+}
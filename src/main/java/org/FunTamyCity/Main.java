@@ -1,17 +1,287 @@
 package org.FunTamyCity;
 
-//TIP 要<b>运行</b>代码，请按 <shortcut actionId="Run"/> 或
-// 点击装订区域中的 <icon src="AllIcons.Actions.Execute"/> 图标。
+import Simulation.CitizenGenerator;
+import Simulation.CreateLogFile;
+import Simulation.EnergyDrainRelaxation;
+import Simulation.NameSampler;
+import Simulation.World;
+import Simulation.WorldConfig;
+import Simulation.WorldRunner;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+无界面批量运行(Headless batch runner)
+
+不读标准输入、不节流、不需要JavaFX，供CI和计算节点使用：
+1. 载入世界(CitizenData.json 或 .bin 二进制存档)，或用 --citizens N 按种子生成市民；
+2. --worlds N 时同时运行N个世界(种子依次为 seed, seed+1, ...)，共用 --threads 个线程；
+3. --relax-energy 时市民的 energyDrain 按指数规律回归(EnergyDrainRelaxation)；
+   --skip-ahead 时跳过没有事件的Tick，连续状态用解析解一次推进(模拟一年只需几秒)；
+4. 每个世界执行 --ticks 个Tick，结束后在 --out 目录写入：
+     <世界名>/WorldSnapshot.bin   最终状态(二进制存档)
+     report.txt                   吞吐量、子系统耗时和运行指标
+     report.json                  同样的吞吐量数据(机器可读)
+返回码：0 全部成功，1 载入失败、有世界失败或写入失败，2 参数错误(只有命令行解析)。
+
+用法: Main --ticks N [--world 文件] [--citizens N] [--seed N] [--threads N] [--worlds N] [--slice N] [--out 目录]
+          [--relax-energy] [--skip-ahead]
+ */
 public class Main {
+    // ==================== 常量定义 ====================
+    private static final CreateLogFile.Category LOG = CreateLogFile.category(Main.class);
+    private static final String USAGE = "用法: Main --ticks N [--world 文件] [--citizens N] [--seed N] [--threads N] [--worlds N] [--slice N] [--out 目录] [--relax-energy] [--skip-ahead]";
+    private static final String DEFAULT_OUT = "out";
+
     public static void main(String[] args) {
-        //TIP 当文本光标位于高亮显示的文本处时按 <shortcut actionId="ShowIntentionActions"/>
-        // 查看 IntelliJ IDEA 建议如何修正。
-        System.out.printf("Hello and welcome!");
+        // 只有参数解析失败返回2；载入和运行中的错误(包括 IllegalArgumentException)由 run 处理并返回1
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[错误] " + e.getMessage());
+            System.err.println(USAGE);
+            options = null;
+        }
+        int code;
+        if (options == null) {
+            code = 2;
+        } else if (options.help) {
+            System.out.println(USAGE);
+            code = 0;
+        } else {
+            code = run(options);
+        }
+        CreateLogFile.getInstance().shutdown();
+        System.exit(code);
+    }
+
+    // ==================== 批量运行 ====================
+
+    private static int run(Options options) {
+        long ticks = options.ticks;
+        String worldFile = options.worldFile;
+        int citizens = options.citizens;
+        Long seed = options.seed;
+        int threads = options.threads;
+        int worldCount = options.worldCount;
+        long slice = options.slice;
+        boolean relaxEnergy = options.relaxEnergy;
+        boolean skipAhead = options.skipAhead;
+        Path outDir = Paths.get(options.out);
+
+        WorldRunner runner = new WorldRunner(threads);
+        if (slice > 0) {
+            runner.setSliceTicks(slice);
+        }
+        long baseSeed = seed != null ? seed : World.DEFAULT_WORLD_SEED;
+
+        // 准备世界
+        long prepareStart = System.nanoTime();
+        NameSampler names = null;
+        for (int i = 0; i < worldCount; i++) {
+            String name = worldCount == 1 ? "world" : "world-" + i;
+            long worldSeed = baseSeed + i;
+            World world = runner.createWorld(WorldConfig.named(name)
+                .setSeed(worldSeed)
+                .setSnapshotPath(outDir.resolve(name).resolve("WorldSnapshot.bin").toString()));
+            if (!world.loadEnvironment()) {
+                runner.shutdown();
+                return 1;
+            }
+            if (citizens >= 0) {
+                try {
+                    if (names == null) {
+                        names = NameSampler.load(CitizenGenerator.NAME_REPOSITORY_PATH);
+                    }
+                } catch (IOException | JSONException e) {
+                    System.err.println("FileError(1):" + e.getMessage());
+                    LOG.log("[Main]Failed to load name repository", e);
+                    runner.shutdown();
+                    return 1;
+                }
+                CitizenGenerator generator;
+                try {
+                    generator = new CitizenGenerator(names, worldSeed, threads);
+                } catch (IllegalArgumentException e) {
+                    // 姓名库缺少需要的表
+                    System.err.println("FileError(1):" + e.getMessage());
+                    LOG.log("[Main]Invalid name repository", e);
+                    runner.shutdown();
+                    return 1;
+                }
+                generator.populate(world.getCitizenStore(), citizens);
+                generator.shutdown();
+            } else if (worldFile.endsWith(".bin")) {
+                if (!world.loadSnapshot(worldFile)) {
+                    runner.shutdown();
+                    return 1;
+                }
+                // 存档中保存了种子，只有显式指定 --seed 或运行多个世界(每个世界 种子 + 序号)时才覆盖
+                if (seed != null || worldCount > 1) {
+                    world.setWorldSeed(worldSeed);
+                }
+            } else if (!world.loadCitizens(worldFile)) {
+                runner.shutdown();
+                return 1;
+            }
+            if (relaxEnergy) {
+                world.setCitizenUpdater(new EnergyDrainRelaxation());
+            }
+            world.getEngine().setSkipAhead(skipAhead);
+        }
+        long prepareMs = (System.nanoTime() - prepareStart) / 1_000_000;
+        System.out.printf("准备 %d 个世界用时 %d ms，开始执行 %d Ticks (%d 线程)%n", worldCount, prepareMs, ticks, threads);
+        LOG.log("[Main]Running %d worlds for %d ticks on %d threads", worldCount, ticks, threads);
+
+        // 执行(指标区间从这里开始，不含载入时间)
+        for (World world : runner.getWorlds()) {
+            world.getMetrics().resetWindow();
+        }
+        try {
+            runner.run(ticks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runner.stop();
+        }
+
+        // 写入最终状态和报告
+        boolean ok = true;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("FunTamyCity batch run: %d worlds, %d ticks, %d threads, seed %d, source %s%s%s%n%n",
+            worldCount, ticks, threads, baseSeed, citizens >= 0 ? citizens + " generated citizens" : worldFile,
+            relaxEnergy ? ", energy relaxation" : "", skipAhead ? ", skip-ahead" : ""));
+        report.append(runner.report()).append(System.lineSeparator());
+        JSONArray worldsJson = new JSONArray();
+        try {
+            for (WorldRunner.WorldMetrics metrics : runner.getMetrics()) {
+                World world = metrics.getWorld();
+                Path snapshot = outDir.resolve(world.getName()).resolve("WorldSnapshot.bin");
+                boolean saved = metrics.getFailure() == null && world.saveSnapshot(snapshot.toString());
+                ok &= saved;
+                report.append(world.getMetrics().report()).append(System.lineSeparator());
+
+                JSONObject json = new JSONObject();
+                json.put("name", world.getName());
+                json.put("seed", world.getRandomStreams().getWorldSeed());
+                json.put("citizens", world.getCitizenStore().size());
+                json.put("ticks", metrics.getTicks());
+                json.put("finalTick", world.getTickCount());
+                json.put("skippedTicks", world.getEngine().getSkippedTicks());
+                json.put("busyMs", metrics.getBusyNanos() / 1e6);
+                json.put("ticksPerSecond", metrics.getTicksPerSecond());
+                json.put("citizensPerSecond", metrics.getCitizensPerSecond());
+                json.put("citizenTicksSkipped", metrics.getCitizensAdvanced());
+                json.put("snapshot", saved ? snapshot.toString() : JSONObject.NULL);
+                json.put("failure", metrics.getFailure() != null ? metrics.getFailure().toString() : JSONObject.NULL);
+                worldsJson.put(json);
+            }
+            JSONObject summary = new JSONObject();
+            summary.put("ticks", ticks);
+            summary.put("threads", threads);
+            summary.put("seed", baseSeed);
+            summary.put("skipAhead", skipAhead);
+            summary.put("prepareMs", prepareMs);
+            summary.put("worlds", worldsJson);
+
+            Files.createDirectories(outDir);
+            Files.writeString(outDir.resolve("report.txt"), report, StandardCharsets.UTF_8);
+            Files.writeString(outDir.resolve("report.json"), summary.toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("FileError(3):" + e.getMessage());
+            LOG.log("[Main]Failed to write batch report", e);
+            ok = false;
+        } catch (JSONException e) {
+            System.err.println("FileError(2):" + e.getMessage());
+            LOG.log("[Main]Failed to build batch report", e);
+            ok = false;
+        } finally {
+            runner.shutdown();
+        }
+
+        System.out.print(report);
+        System.out.println("报告已写入: " + outDir.resolve("report.txt") + ", " + outDir.resolve("report.json"));
+        return ok ? 0 : 1;
+    }
+
+    // ==================== 参数解析 ====================
 
-        for (int i = 1; i <= 5; i++) {
-            //TIP 按 <shortcut actionId="Debug"/> 开始调试代码。我们已经设置了一个 <icon src="AllIcons.Debugger.Db_set_breakpoint"/> 断点
-            // 但您始终可以通过按 <shortcut actionId="ToggleLineBreakpoint"/> 添加更多断点。
-            System.out.println("i = " + i);
+    /**
+     * 命令行参数，格式或组合错误时 parse 抛出 IllegalArgumentException
+     */
+    private static final class Options {
+        long ticks = -1;
+        String worldFile = null;
+        int citizens = -1;
+        Long seed = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int worldCount = 1;
+        long slice = 0;
+        String out = DEFAULT_OUT;
+        boolean relaxEnergy = false;
+        boolean skipAhead = false;
+        boolean help = false;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--ticks": options.ticks = parseLong(args, ++i, 0, Long.MAX_VALUE); break;
+                    case "--world": options.worldFile = value(args, ++i); break;
+                    case "--citizens": options.citizens = (int) parseLong(args, ++i, 0, Integer.MAX_VALUE); break;
+                    case "--seed": options.seed = parseLong(args, ++i, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                    case "--threads": options.threads = (int) parseLong(args, ++i, 1, Integer.MAX_VALUE); break;
+                    case "--worlds": options.worldCount = (int) parseLong(args, ++i, 1, Integer.MAX_VALUE); break;
+                    case "--slice": options.slice = parseLong(args, ++i, 0, Long.MAX_VALUE); break;
+                    case "--out": options.out = value(args, ++i); break;
+                    case "--relax-energy": options.relaxEnergy = true; break;
+                    case "--skip-ahead": options.skipAhead = true; break;
+                    case "--help":
+                        options.help = true;
+                        return options;
+                    default:
+                        throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+            if (options.ticks < 0) {
+                throw new IllegalArgumentException("必须指定 --ticks");
+            }
+            if (options.worldFile != null && options.citizens >= 0) {
+                throw new IllegalArgumentException("--world 和 --citizens 只能指定一个");
+            }
+            if (options.worldFile == null && options.citizens < 0) {
+                options.worldFile = World.CITIZEN_DATA_PATH;
+            }
+            return options;
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " 缺少参数值");
+        }
+        return args[index];
+    }
+
+    // 格式错误或超出 [min, max] 时抛出 IllegalArgumentException，int 参数不会被截断
+    private static long parseLong(String[] args, int index, long min, long max) {
+        String value = value(args, index);
+        long result;
+        try {
+            result = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(args[index - 1] + " 必须是整数: " + value);
+        }
+        if (result < min || result > max) {
+            throw new IllegalArgumentException(args[index - 1] + " 超出范围 [" + min + ", " + max + "]: " + value);
         }
+        return result;
     }
-}
\ No newline at end of file
+}
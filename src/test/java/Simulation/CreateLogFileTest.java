@@ -0,0 +1,135 @@
+package Simulation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+文本日志测试(CreateLogFile)
+
+格式化在写入线程中完成：格式串或参数出错时原样记录且写入线程继续工作；
+按大小轮转时不丢失、不打乱日志，轮转出的文件都达到大小上限。
+ */
+class CreateLogFileTest {
+    private static final Pattern LINE = Pattern.compile("line (\\d{5})");
+
+    @TempDir
+    Path directory;
+
+    private CreateLogFile logger;
+
+    @BeforeEach
+    void open() {
+        logger = new CreateLogFile(directory.toString());
+    }
+
+    @AfterEach
+    void close() {
+        logger.shutdown();
+    }
+
+    @Test
+    void formatsOnWriterThread() throws IOException {
+        logger.log(CreateLogFile.LogLevel.WARN, "%s=%d", "answer", 42);
+        logger.log("plain %s message");
+        logger.flush();
+
+        String content = read(new File(logger.getCurrentLogPath()));
+        assertTrue(content.contains("[WARN][" + Thread.currentThread().getName() + "] answer=42"), content);
+        assertTrue(content.contains("] plain %s message"), content);
+    }
+
+    @Test
+    void brokenArgumentsAreLoggedRaw() throws IOException {
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("boom");
+            }
+        };
+        logger.log("value %s", broken);
+        logger.log("number %d", "text");
+        logger.log("still running");
+        logger.flush();
+
+        String content = read(new File(logger.getCurrentLogPath()));
+        assertTrue(content.contains("] value %s [" + broken.getClass().getName() + "@"), content);
+        assertTrue(content.contains("java.lang.IllegalStateException: boom"), content);
+        assertTrue(content.contains("] number %d [text] (java.util.IllegalFormatConversionException"), content);
+        assertTrue(content.contains("] still running"), content);
+    }
+
+    @Test
+    void rotatesBySizeWithoutLosingLines() throws IOException {
+        long limit = 4096;
+        logger.setCompressRotatedFiles(false);
+        logger.setRotationSize(limit);
+        for (int i = 0; i < 5000; i++) {
+            logger.log("line %05d", i);
+        }
+        logger.flush();
+
+        File[] files = directory.toFile().listFiles((dir, name) -> name.matches("Log_\\d{8}_\\d+\\.log"));
+        assertNotNull(files);
+        Arrays.sort(files);
+        assertTrue(files.length > 1, "expected rotation, got " + files.length + " file(s)");
+
+        List<Integer> lines = new ArrayList<>();
+        for (File file : files) {
+            if (!file.getAbsolutePath().equals(logger.getCurrentLogPath())) {
+                // 每批写入后才检查大小，轮转出的文件至少达到上限
+                assertTrue(file.length() >= limit, file.getName() + " rotated at " + file.length() + " bytes");
+            }
+            Matcher matcher = LINE.matcher(read(file));
+            while (matcher.find()) {
+                lines.add(Integer.parseInt(matcher.group(1)));
+            }
+        }
+        assertEquals(5000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(i, lines.get(i).intValue());
+        }
+    }
+
+    @Test
+    void sinksCountEncodedBytes() throws IOException {
+        String text = "市民 citizen 季节 Spring\n".repeat(5000);
+        for (String kind : new String[]{"writer", "channel"}) {
+            File file = directory.resolve(kind + ".log").toFile();
+            Files.writeString(file.toPath(), "existing\n");
+            String previous = System.getProperty(LogSink.SINK_PROPERTY);
+            System.setProperty(LogSink.SINK_PROPERTY, kind);
+            try (LogSink sink = LogSink.open(file)) {
+                assertEquals(file.length(), sink.size(), kind);
+                sink.write(new StringBuilder(text));
+                sink.flush();
+                assertEquals(file.length(), sink.size(), kind);
+            } finally {
+                if (previous == null) {
+                    System.clearProperty(LogSink.SINK_PROPERTY);
+                } else {
+                    System.setProperty(LogSink.SINK_PROPERTY, previous);
+                }
+            }
+            assertTrue(read(file).endsWith(text), kind);
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        return Files.readString(file.toPath(), Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,199 @@
+package Simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static Simulation.WorldSnapshotTest.assertSameCitizens;
+import static Simulation.WorldSnapshotTest.citizens;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+增量存档测试(DeltaSaveLog)
+
+基础存档 + 增量日志读回的结果与内存中一致；后台合并后基础存档单独就是最新状态；
+合并失败留下的待合并文件与新的增量一起合并，或在重写全量存档时删除；写到一半的记录在读取时被忽略。
+ */
+class DeltaSaveLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checkpointsOnlyDirtyCitizensAndReplaysThem() throws IOException {
+        Path path = directory.resolve("world.bin");
+        CitizenStore store = citizens(200);
+        DeltaSaveLog log = new DeltaSaveLog(path);
+        try {
+            assertEquals(200, log.checkpoint(world(1), store));
+            assertTrue(log.exists());
+
+            store.set(CitizenStore.Trait.ENERGY_DRAIN, 5, 0.5f);
+            store.set(CitizenStore.Trait.ENERGY_DRAIN, 150, 0.75f);
+            store.add("新市民", CitizenStore.GENDER_FEMALE);
+            assertEquals(3, log.checkpoint(world(2), store));
+            assertEquals(0, store.dirtyCount());
+
+            store.set(CitizenStore.Trait.ENERGY_DRAIN, 5, 0.25f);
+            assertEquals(1, log.checkpoint(world(3), store));
+        } finally {
+            log.close();
+        }
+        assertTrue(Files.exists(delta(path)));
+
+        CitizenStore loaded = new CitizenStore();
+        DeltaSaveLog reader = new DeltaSaveLog(path);
+        try {
+            assertEquals(3, reader.load(loaded).getTickCount());
+        } finally {
+            reader.close();
+        }
+        assertSameCitizens(store, loaded);
+        assertEquals(0, loaded.dirtyCount());
+    }
+
+    @Test
+    void compactionMergesDeltasIntoBase() throws IOException {
+        Path path = directory.resolve("world.bin");
+        CitizenStore store = citizens(100);
+        DeltaSaveLog log = new DeltaSaveLog(path);
+        try {
+            log.setCompactThresholdBytes(1);
+            log.checkpoint(world(1), store);
+            store.set(CitizenStore.Trait.SATISFACTION_INDEX, 42, 9.0f);
+            log.checkpoint(world(2), store);
+            log.awaitCompaction();
+        } finally {
+            log.close();
+        }
+        assertFalse(Files.exists(compacting(path)));
+
+        CitizenStore base = new CitizenStore();
+        assertEquals(2, WorldSnapshot.read(path, base).getTickCount());
+        assertSameCitizens(store, base);
+    }
+
+    @Test
+    void failedCompactionIsRetriedWithNewDeltas() throws IOException {
+        Path path = directory.resolve("world.bin");
+        CitizenStore store = citizens(100);
+        DeltaSaveLog log = new DeltaSaveLog(path);
+        try {
+            log.checkpoint(world(1), store);
+            store.set(CitizenStore.Trait.SATISFACTION_INDEX, 1, 1.5f);
+            log.checkpoint(world(2), store);
+        } finally {
+            log.close();
+        }
+        // 上一次合并失败留下的待合并文件
+        Files.move(delta(path), compacting(path));
+
+        DeltaSaveLog retry = new DeltaSaveLog(path);
+        try {
+            retry.setCompactThresholdBytes(1);
+            store.set(CitizenStore.Trait.SATISFACTION_INDEX, 2, 2.5f);
+            retry.checkpoint(world(3), store);
+            retry.awaitCompaction();
+        } finally {
+            retry.close();
+        }
+        assertFalse(Files.exists(compacting(path)));
+        assertFalse(Files.exists(delta(path)));
+
+        CitizenStore base = new CitizenStore();
+        assertEquals(3, WorldSnapshot.read(path, base).getTickCount());
+        assertSameCitizens(store, base);
+    }
+
+    @Test
+    void fullRewriteDropsFailedCompaction() throws IOException {
+        Path path = directory.resolve("world.bin");
+        CitizenStore store = citizens(100);
+        DeltaSaveLog log = new DeltaSaveLog(path);
+        try {
+            log.checkpoint(world(1), store);
+            store.set(CitizenStore.Trait.SATISFACTION_INDEX, 1, 1.5f);
+            log.checkpoint(world(2), store);
+        } finally {
+            log.close();
+        }
+        Files.move(delta(path), compacting(path));
+        // 基础存档丢失，下一次检查点写全量存档
+        Files.delete(path);
+
+        DeltaSaveLog rewrite = new DeltaSaveLog(path);
+        try {
+            store.set(CitizenStore.Trait.SATISFACTION_INDEX, 1, 7.5f);
+            assertEquals(100, rewrite.checkpoint(world(3), store));
+        } finally {
+            rewrite.close();
+        }
+        assertFalse(Files.exists(compacting(path)));
+
+        CitizenStore loaded = new CitizenStore();
+        DeltaSaveLog reader = new DeltaSaveLog(path);
+        try {
+            assertEquals(3, reader.load(loaded).getTickCount());
+        } finally {
+            reader.close();
+        }
+        assertSameCitizens(store, loaded);
+    }
+
+    @Test
+    void truncatedRecordIsIgnored() throws IOException {
+        Path path = directory.resolve("world.bin");
+        CitizenStore store = citizens(50);
+        DeltaSaveLog log = new DeltaSaveLog(path);
+        try {
+            log.checkpoint(world(1), store);
+            store.set(CitizenStore.Trait.ENERGY_DRAIN, 3, 3.0f);
+            log.checkpoint(world(2), store);
+        } finally {
+            log.close();
+        }
+        CitizenStore expected = citizens(50);
+        expected.set(CitizenStore.Trait.ENERGY_DRAIN, 3, 3.0f);
+        long complete = Files.size(delta(path));
+
+        log = new DeltaSaveLog(path);
+        try {
+            store.set(CitizenStore.Trait.ENERGY_DRAIN, 4, 4.0f);
+            log.checkpoint(world(3), store);
+        } finally {
+            log.close();
+        }
+        // 模拟最后一条记录写到一半崩溃
+        try (FileChannel channel = FileChannel.open(delta(path), StandardOpenOption.WRITE)) {
+            channel.truncate(complete + 10);
+        }
+
+        CitizenStore loaded = new CitizenStore();
+        DeltaSaveLog reader = new DeltaSaveLog(path);
+        try {
+            assertEquals(2, reader.load(loaded).getTickCount());
+        } finally {
+            reader.close();
+        }
+        assertSameCitizens(expected, loaded);
+    }
+
+    // ==================== 测试数据 ====================
+
+    private static WorldSnapshot world(long tick) {
+        return new WorldSnapshot(tick, (int) (tick % 4), tick * 10, 100 + (int) tick, 20260222L);
+    }
+
+    private static Path delta(Path path) {
+        return path.resolveSibling(path.getFileName() + ".delta");
+    }
+
+    private static Path compacting(Path path) {
+        return path.resolveSibling(path.getFileName() + ".delta.compacting");
+    }
+}
@@ -0,0 +1,145 @@
+package Simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+事件日志测试(EventJournal / JournalRingBuffer)
+
+写入的记录按顺序读回；缓冲满时生产者等待而不丢记录；再次打开时追加并截掉半条记录。
+ */
+class EventJournalTest {
+    private static final int PRODUCERS = 4;
+    private static final int RECORDS_PER_PRODUCER = 50_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsRoundTripInOrder() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        try (EventJournal journal = EventJournal.open(path)) {
+            for (int i = 0; i < 10_000; i++) {
+                journal.record(i, i % 7 == 0 ? EventJournal.WORLD : i, EventJournal.EventType.CITIZEN_DECISION, i * 0.5, -i);
+            }
+            journal.flush();
+            assertEquals(EventJournal.HEADER_SIZE + 10_000L * EventJournal.RECORD_SIZE, Files.size(path));
+        }
+
+        try (EventJournal.Reader reader = new EventJournal.Reader(path)) {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(reader.next());
+                assertEquals(i, reader.getTick());
+                assertEquals(i % 7 == 0 ? EventJournal.WORLD : i, reader.getCitizenId());
+                assertEquals(EventJournal.EventType.CITIZEN_DECISION.getCode(), reader.getType());
+                assertEquals(i * 0.5, reader.getValue());
+                assertEquals(-i, reader.getExtra());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void reopenAppendsAndDropsPartialRecord() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        try (EventJournal journal = EventJournal.open(path)) {
+            journal.record(1, 1, EventJournal.EventType.TICK_STATUS, 1.0, 0);
+        }
+        // 模拟写到一半崩溃
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[EventJournal.RECORD_SIZE / 2]));
+        }
+        try (EventJournal journal = EventJournal.open(path)) {
+            journal.record(2, 2, EventJournal.EventType.SEASON_CHANGE, 2.0, 3);
+        }
+
+        try (EventJournal.Reader reader = new EventJournal.Reader(path)) {
+            assertTrue(reader.next());
+            assertEquals(1, reader.getTick());
+            assertTrue(reader.next());
+            assertEquals(2, reader.getTick());
+            assertEquals(EventJournal.EventType.SEASON_CHANGE.getCode(), reader.getType());
+            assertEquals(3, reader.getExtra());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsForeignFile() throws IOException {
+        Path path = directory.resolve("other.bin");
+        Files.write(path, new byte[EventJournal.HEADER_SIZE]);
+        assertThrows(IOException.class, () -> EventJournal.open(path));
+    }
+
+    @Test
+    void concurrentProducersLoseNoRecords() throws Exception {
+        Path path = directory.resolve("journal.bin");
+        try (EventJournal journal = EventJournal.open(path)) {
+            Thread[] producers = new Thread[PRODUCERS];
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < RECORDS_PER_PRODUCER; i++) {
+                        journal.record(i, producer, EventJournal.EventType.CITIZEN_DECISION, 0, 0);
+                    }
+                });
+                producers[p].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+        }
+
+        long[] next = new long[PRODUCERS];
+        try (EventJournal.Reader reader = new EventJournal.Reader(path)) {
+            while (reader.next()) {
+                int producer = reader.getCitizenId();
+                assertEquals(next[producer], reader.getTick(), "producer " + producer);
+                next[producer]++;
+            }
+        }
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(RECORDS_PER_PRODUCER, next[p]);
+        }
+    }
+
+    @Test
+    void fullRingWaitsForConsumerAndGivesUpAfterClose() throws InterruptedException {
+        JournalRingBuffer ring = new JournalRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, 0, 0, 0, 0));
+        }
+        boolean[] result = new boolean[1];
+        Thread producer = new Thread(() -> result[0] = ring.offer(4, 0, 0, 0, 0));
+        producer.start();
+        producer.join(50);
+        assertTrue(producer.isAlive(), "offer must wait while the ring is full");
+
+        long[] ticks = new long[5];
+        int[] count = new int[1];
+        ring.drain((tick, citizenId, type, value, extra) -> ticks[count[0]++] = tick, 1);
+        producer.join();
+        assertTrue(result[0]);
+        ring.drain((tick, citizenId, type, value, extra) -> ticks[count[0]++] = tick, 10);
+        assertEquals(5, count[0]);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, ticks[i]);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, 0, 0, 0, 0));
+        }
+        ring.close();
+        assertFalse(ring.offer(4, 0, 0, 0, 0));
+        assertTrue(ring.hasPublished());
+    }
+}
@@ -0,0 +1,108 @@
+package Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+拉取式JSON读取器测试(JsonPullReader)
+
+skipValue/skipRest 跳过嵌套的对象和数组后，后续记号仍然对齐；多余或不匹配的结束符是语法错误。
+ */
+class JsonPullReaderTest {
+
+    @Test
+    void readsTokensInOrder() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader("{\"a\": [1.5, -2e3, true, null], \"b\": \"市民\\n\"}"));
+        assertEquals(JsonPullReader.Token.BEGIN_OBJECT, reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        assertEquals("a", reader.stringValue());
+        assertEquals(JsonPullReader.Token.BEGIN_ARRAY, reader.next());
+        assertEquals(JsonPullReader.Token.NUMBER, reader.next());
+        assertEquals(1.5, reader.numberValue());
+        assertEquals(JsonPullReader.Token.NUMBER, reader.next());
+        assertEquals(-2000.0, reader.numberValue());
+        assertEquals(JsonPullReader.Token.TRUE, reader.next());
+        assertEquals(JsonPullReader.Token.NULL, reader.next());
+        assertEquals(JsonPullReader.Token.END_ARRAY, reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        assertEquals(JsonPullReader.Token.STRING, reader.next());
+        assertEquals("市民\n", reader.stringValue());
+        assertEquals(JsonPullReader.Token.END_OBJECT, reader.next());
+        assertEquals(JsonPullReader.Token.END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    void skipRestRealignsAfterUnexpectedContainer() throws IOException {
+        // 期望数字的位置出现了嵌套对象/数组
+        JsonPullReader reader = new JsonPullReader(new StringReader(
+            "{\"score\": {\"x\": [1, {\"y\": 2}]}, \"list\": [[3], 4], \"plain\": 5, \"after\": 6}"));
+        assertEquals(JsonPullReader.Token.BEGIN_OBJECT, reader.next());
+
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        reader.skipRest(reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        reader.skipRest(reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        // 标量值已经完整读取，skipRest 不再读取
+        reader.skipRest(reader.next());
+
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        assertEquals("after", reader.stringValue());
+        assertEquals(JsonPullReader.Token.NUMBER, reader.next());
+        assertEquals(6.0, reader.numberValue());
+        assertEquals(JsonPullReader.Token.END_OBJECT, reader.next());
+    }
+
+    @Test
+    void skipValueSkipsNestedValue() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader("{\"skip\": {\"a\": [1, 2, {}]}, \"keep\": \"v\"}"));
+        assertEquals(JsonPullReader.Token.BEGIN_OBJECT, reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        reader.skipValue();
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        assertEquals("keep", reader.stringValue());
+    }
+
+    @Test
+    void truncatedContainerIsAnError() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader("{\"a\": [1, 2"));
+        assertEquals(JsonPullReader.Token.BEGIN_OBJECT, reader.next());
+        assertEquals(JsonPullReader.Token.NAME, reader.next());
+        JsonPullReader.Token token = reader.next();
+        assertThrows(IOException.class, () -> reader.skipRest(token));
+    }
+
+    @Test
+    void strayCloserIsAnError() throws IOException {
+        JsonPullReader reader = new JsonPullReader(new StringReader("{} ] {\"a\": 1}"));
+        assertEquals(JsonPullReader.Token.BEGIN_OBJECT, reader.next());
+        assertEquals(JsonPullReader.Token.END_OBJECT, reader.next());
+        assertThrows(IOException.class, reader::next);
+
+        JsonPullReader top = new JsonPullReader(new StringReader("}"));
+        assertThrows(IOException.class, top::next);
+    }
+
+    @Test
+    void mismatchedCloserIsAnError() throws IOException {
+        JsonPullReader array = new JsonPullReader(new StringReader("[1}"));
+        assertEquals(JsonPullReader.Token.BEGIN_ARRAY, array.next());
+        assertEquals(JsonPullReader.Token.NUMBER, array.next());
+        assertThrows(IOException.class, array::next);
+
+        JsonPullReader object = new JsonPullReader(new StringReader("{\"a\": [1, 2}"));
+        object.next();
+        object.next();
+        assertThrows(IOException.class, () -> object.skipRest(object.next()));
+
+        // 键后面缺少值
+        JsonPullReader missing = new JsonPullReader(new StringReader("{\"a\"}"));
+        missing.next();
+        missing.next();
+        assertThrows(IOException.class, missing::next);
+    }
+}
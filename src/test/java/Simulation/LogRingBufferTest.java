@@ -0,0 +1,116 @@
+package Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+环形缓冲测试(LogRingBuffer)
+
+槽位按抢占顺序取出、满时拒绝、绕圈后复用；多个生产者并发写入时每条事件恰好取出一次，
+同一生产者的事件保持发布顺序。
+ */
+class LogRingBufferTest {
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 100_000;
+
+    @Test
+    void drainsInClaimOrderAndRejectsWhenFull() {
+        LogRingBuffer ring = new LogRingBuffer(8);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                long position = ring.tryClaim();
+                assertEquals(round * 8L + i, position);
+                ring.get(position).message = "m" + position;
+                ring.publish(position);
+            }
+            assertEquals(-1, ring.tryClaim());
+            assertEquals(8, ring.size());
+
+            List<String> drained = new ArrayList<>();
+            assertEquals(5, ring.drain(event -> drained.add(event.message), 5));
+            assertEquals(3, ring.drain(event -> drained.add(event.message), 100));
+            for (int i = 0; i < 8; i++) {
+                assertEquals("m" + (round * 8 + i), drained.get(i));
+            }
+            assertTrue(ring.isEmpty());
+        }
+        assertEquals(24, ring.claimedCount());
+        assertEquals(24, ring.consumedCount());
+    }
+
+    @Test
+    void stopsAtUnpublishedSlot() {
+        LogRingBuffer ring = new LogRingBuffer(4);
+        long first = ring.tryClaim();
+        long second = ring.tryClaim();
+        ring.publish(second);
+
+        // 前一个槽位还没有发布，后面已发布的也不能先取出
+        assertFalse(ring.hasPublished());
+        assertEquals(0, ring.drain(event -> fail("drained before publish"), 4));
+
+        ring.publish(first);
+        assertEquals(2, ring.drain(event -> { }, 4));
+    }
+
+    @Test
+    void drainedSlotsAreCleared() {
+        LogRingBuffer ring = new LogRingBuffer(2);
+        long position = ring.tryClaim();
+        LogEvent event = ring.get(position);
+        event.message = "message";
+        event.args = new Object[]{1};
+        ring.publish(position);
+        ring.drain(e -> { }, 1);
+        assertNull(event.message);
+        assertNull(event.args);
+    }
+
+    @Test
+    void concurrentProducersKeepPerProducerOrder() throws InterruptedException {
+        LogRingBuffer ring = new LogRingBuffer(1024);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    long position;
+                    while ((position = ring.tryClaim()) < 0) {
+                        Thread.yield();
+                    }
+                    // 生产者编号和序号编码在 timestamp 中
+                    ring.get(position).timestamp = producer << 32 | i;
+                    ring.publish(position);
+                }
+            });
+            producers[p].start();
+        }
+
+        long[] next = new long[PRODUCERS];
+        long total = 0;
+        while (total < (long) PRODUCERS * EVENTS_PER_PRODUCER) {
+            int drained = ring.drain(event -> {
+                int producer = (int) (event.timestamp >>> 32);
+                long sequence = event.timestamp & 0xFFFFFFFFL;
+                assertEquals(next[producer], sequence, "producer " + producer);
+                next[producer]++;
+            }, 256);
+            if (drained == 0) {
+                Thread.yield();
+            }
+            total += drained;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(EVENTS_PER_PRODUCER, next[p]);
+        }
+        assertTrue(ring.isEmpty());
+        assertEquals(total, ring.claimedCount());
+    }
+}
@@ -0,0 +1,126 @@
+package Simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+二进制存档测试(WorldSnapshot)
+
+世界状态、性别、全部分数列和姓名(含中文)写入后原样读回；不是存档、版本不符、截断或字段损坏时抛出 IOException。
+ */
+class WorldSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsWorldAndCitizens() throws IOException {
+        // 市民数不是4的倍数，覆盖性别列的补齐
+        CitizenStore store = citizens(1027);
+        WorldSnapshot world = new WorldSnapshot(123_456_789L, 2, 4_321L, 87, 20260222L);
+        Path path = directory.resolve("saves").resolve("world.bin");
+        WorldSnapshot.write(path, world, store);
+
+        CitizenStore loaded = new CitizenStore();
+        loaded.add("stale", CitizenStore.GENDER_MALE);
+        WorldSnapshot read = WorldSnapshot.read(path, loaded);
+
+        assertEquals(world.getTickCount(), read.getTickCount());
+        assertEquals(world.getCurrentSeason(), read.getCurrentSeason());
+        assertEquals(world.getSeasonTick(), read.getSeasonTick());
+        assertEquals(world.getCityAttractiveness(), read.getCityAttractiveness());
+        assertEquals(world.getWorldSeed(), read.getWorldSeed());
+        assertSameCitizens(store, loaded);
+        assertFalse(Files.exists(path.resolveSibling("world.bin.tmp")));
+    }
+
+    @Test
+    void roundTripsEmptyWorld() throws IOException {
+        Path path = directory.resolve("empty.bin");
+        WorldSnapshot.write(path, new WorldSnapshot(0, 0, 0, 100, 1), new CitizenStore());
+        CitizenStore loaded = new CitizenStore();
+        assertEquals(100, WorldSnapshot.read(path, loaded).getCityAttractiveness());
+        assertEquals(0, loaded.size());
+    }
+
+    @Test
+    void rejectsForeignAndNewerFiles() throws IOException {
+        Path foreign = directory.resolve("foreign.bin");
+        Files.write(foreign, new byte[64]);
+        assertThrows(IOException.class, () -> WorldSnapshot.read(foreign, new CitizenStore()));
+
+        Path newer = directory.resolve("newer.bin");
+        WorldSnapshot.write(newer, new WorldSnapshot(1, 0, 0, 100, 1), citizens(3));
+        byte[] bytes = Files.readAllBytes(newer);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, WorldSnapshot.VERSION + 1);
+        Files.write(newer, bytes);
+        assertThrows(IOException.class, () -> WorldSnapshot.read(newer, new CitizenStore()));
+    }
+
+    @Test
+    void rejectsTruncatedAndCorruptFiles() throws IOException {
+        Path path = directory.resolve("world.bin");
+        WorldSnapshot.write(path, new WorldSnapshot(1, 0, 0, 100, 1), citizens(10));
+        byte[] valid = Files.readAllBytes(path);
+
+        // 截在分数列和姓名中间
+        assertCorrupt(Arrays.copyOf(valid, 200));
+        assertCorrupt(Arrays.copyOf(valid, valid.length - 3));
+        // 市民数、分数列数、季节超出范围
+        assertCorrupt(patch(valid, 40, -1));
+        assertCorrupt(patch(valid, 40, Integer.MAX_VALUE));
+        assertCorrupt(patch(valid, 44, -5));
+        assertCorrupt(patch(valid, 44, 1 << 20));
+        assertCorrupt(patch(valid, 16, SeasonSystem.SEASONS.length));
+        // 第一个姓名的长度字段
+        int namesStart = 48 + 12 + 10 * Float.BYTES * CitizenStore.Trait.values().length;
+        assertCorrupt(patch(valid, namesStart, -1));
+        assertCorrupt(patch(valid, namesStart, valid.length));
+    }
+
+    private void assertCorrupt(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupt.bin");
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> WorldSnapshot.read(path, new CitizenStore()));
+    }
+
+    private static byte[] patch(byte[] bytes, int offset, int value) {
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+
+    // ==================== 测试数据 ====================
+
+    static CitizenStore citizens(int count) {
+        CitizenStore store = new CitizenStore();
+        for (int id = 0; id < count; id++) {
+            String name = id % 3 == 0 ? "市民" + id : "Citizen " + id;
+            store.add(name, (byte) (id % 3));
+            for (CitizenStore.Trait trait : CitizenStore.Trait.values()) {
+                store.set(trait, id, id * 0.25f + trait.ordinal());
+            }
+        }
+        return store;
+    }
+
+    static void assertSameCitizens(CitizenStore expected, CitizenStore actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.getName(id), actual.getName(id), "name of " + id);
+            assertEquals(expected.getGender(id), actual.getGender(id), "gender of " + id);
+            for (CitizenStore.Trait trait : CitizenStore.Trait.values()) {
+                assertEquals(expected.get(trait, id), actual.get(trait, id), trait + " of " + id);
+            }
+        }
+    }
+}
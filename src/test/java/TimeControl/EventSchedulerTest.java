@@ -0,0 +1,123 @@
+package TimeControl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+定时事件调度器测试(EventScheduler)
+
+到期事件按 (Tick, 提交顺序) 执行；取消的事件不再执行；周期事件跳过错过的周期；
+nextEventTick 与堆顶一致，跳跃推进时不会越过到期事件。
+ */
+class EventSchedulerTest {
+
+    @Test
+    void firesInTickThenSubmissionOrder() {
+        EventScheduler scheduler = new EventScheduler();
+        List<String> fired = new ArrayList<>();
+        scheduler.schedule(5, tick -> fired.add("c@" + tick));
+        scheduler.schedule(3, tick -> fired.add("a@" + tick));
+        scheduler.schedule(5, tick -> fired.add("d@" + tick));
+        scheduler.schedule(3, tick -> fired.add("b@" + tick));
+
+        for (long tick = 0; tick < 10; tick++) {
+            scheduler.tick(tick);
+        }
+        assertEquals(List.of("a@3", "b@3", "c@5", "d@5"), fired);
+        assertEquals(0, scheduler.size());
+        assertEquals(Long.MAX_VALUE, scheduler.getNextDueTick());
+        assertEquals(4, scheduler.getFiredCount());
+    }
+
+    @Test
+    void keepsHeapOrderUnderRandomScheduleAndCancel() {
+        EventScheduler scheduler = new EventScheduler();
+        Random random = new Random(42);
+        List<long[]> fired = new ArrayList<>();
+        List<EventScheduler.Event> events = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long order = i;
+            events.add(scheduler.schedule(random.nextInt(500), tick -> fired.add(new long[]{tick, order})));
+        }
+        int cancelled = 0;
+        for (int i = 0; i < events.size(); i += 3) {
+            events.get(i).cancel();
+            assertFalse(events.get(i).isScheduled());
+            cancelled++;
+        }
+        assertEquals(2000 - cancelled, scheduler.size());
+
+        for (long tick = 0; tick < 500; tick++) {
+            scheduler.tick(tick);
+        }
+        assertEquals(2000 - cancelled, fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            long[] previous = fired.get(i - 1);
+            long[] current = fired.get(i);
+            assertTrue(previous[0] < current[0] || (previous[0] == current[0] && previous[1] < current[1]),
+                "event " + current[1] + " fired out of order");
+            assertTrue(current[1] % 3 != 0, "cancelled event " + current[1] + " fired");
+        }
+    }
+
+    @Test
+    void repeatingEventSkipsMissedPeriods() {
+        EventScheduler scheduler = new EventScheduler();
+        List<Long> fired = new ArrayList<>();
+        EventScheduler.Event event = scheduler.scheduleRepeating(10, 10, fired::add);
+
+        scheduler.tick(10);
+        scheduler.tick(20);
+        // Tick数跳跃(读取存档)：错过的 30/40 不补执行
+        scheduler.tick(47);
+        assertEquals(List.of(10L, 20L, 47L), fired);
+        assertEquals(50, event.getTick());
+        assertEquals(50, scheduler.getNextDueTick());
+
+        event.cancel();
+        scheduler.tick(50);
+        assertEquals(3, fired.size());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.scheduleRepeating(0, 0, tick -> { }));
+    }
+
+    @Test
+    void eventsScheduledWhileFiringRunInOrder() {
+        EventScheduler scheduler = new EventScheduler();
+        List<String> fired = new ArrayList<>();
+        scheduler.schedule(1, tick -> {
+            fired.add("first");
+            scheduler.schedule(tick, t -> fired.add("same tick"));
+            scheduler.schedule(tick + 1, t -> fired.add("next tick"));
+        });
+        scheduler.tick(1);
+        assertEquals(List.of("first", "same tick"), fired);
+        scheduler.tick(2);
+        assertEquals(List.of("first", "same tick", "next tick"), fired);
+    }
+
+    @Test
+    void nextEventTickFollowsHeadOfHeap() {
+        EventScheduler scheduler = new EventScheduler();
+        assertEquals(Long.MAX_VALUE, scheduler.nextEventTick(0));
+        EventScheduler.Event late = scheduler.schedule(100, tick -> { });
+        scheduler.schedule(40, tick -> { });
+        assertEquals(40, scheduler.nextEventTick(0));
+        // 已过期的事件要求下一个Tick就执行
+        assertEquals(51, scheduler.nextEventTick(50));
+
+        scheduler.tick(50);
+        assertEquals(100, scheduler.nextEventTick(50));
+        late.cancel();
+        assertEquals(Long.MAX_VALUE, scheduler.nextEventTick(50));
+
+        scheduler.schedule(5, tick -> { });
+        scheduler.clear();
+        assertEquals(0, scheduler.size());
+        assertEquals(Long.MAX_VALUE, scheduler.getNextDueTick());
+    }
+}